@@ -0,0 +1,39 @@
+package com.jz.zeus.excel;
+
+import lombok.Data;
+
+/**
+ * 一列数据的错误汇总，只记录出现次数最多的错误信息
+ * @Author JZ
+ * @Date 2021/7/19 10:15
+ */
+@Data
+public class ColumnErrorSummary {
+
+    private Integer columnIndex;
+
+    private String fieldName;
+
+    private String headName;
+
+    /**
+     * 该列错误总数
+     */
+    private int errorCount;
+
+    /**
+     * 该列第一个错误所在的行索引
+     */
+    private int firstRowIndex;
+
+    /**
+     * 出现次数最多的错误信息
+     */
+    private String dominantErrorMsg;
+
+    /**
+     * 出现次数最多的错误信息的次数
+     */
+    private int dominantErrorCount;
+
+}
@@ -0,0 +1,25 @@
+package com.jz.zeus.excel;
+
+/**
+ * 隐藏的下拉框选项 sheet 的保护方式
+ * @Author JZ
+ * @Date 2021/7/23 15:20
+ */
+public enum DicSheetProtection {
+
+  /**
+   * 隐藏并设置密码保护，每个 workbook 只生成一次随机密码及其哈希，所有选项 sheet 复用
+   */
+  SHARED_PASSWORD,
+
+  /**
+   * 只隐藏，不设置保护
+   */
+  NONE,
+
+  /**
+   * 设置为 veryHidden，无法在 Excel 中取消隐藏，不设置保护
+   */
+  VERY_HIDDEN
+
+}
@@ -1,28 +1,15 @@
 package com.jz.zeus.excel.interfaces;
 
-import cn.hutool.core.text.CharSequenceUtil;
-import cn.hutool.core.util.ReflectUtil;
-import lombok.SneakyThrows;
-
 import java.io.Serializable;
-import java.lang.invoke.SerializedLambda;
-import java.lang.reflect.Method;
 import java.util.function.Function;
 
 public interface FieldGetter<T, R> extends Function<T, R>, Serializable {
 
-    @SneakyThrows
+    /**
+     * 获取引用的 getter 方法对应的字段名，按 lambda 的类缓存
+     */
     default String getFieldName() {
-        Method method = ReflectUtil.getMethodByName(this.getClass(), "writeReplace");
-        method.setAccessible(true);
-        SerializedLambda serializedLambda = (SerializedLambda) method.invoke(this);
-        String methodName = serializedLambda.getImplMethodName();
-        if (methodName.startsWith("get")) {
-            methodName = methodName.substring(3);
-        } else if (methodName.startsWith("is")) {
-            methodName = methodName.substring(2);
-        }
-        return CharSequenceUtil.lowerFirst(methodName);
+        return FieldNameCache.getFieldName(this);
     }
 
 }
@@ -0,0 +1,61 @@
+package com.jz.zeus.excel.interfaces;
+
+import cn.hutool.core.text.CharSequenceUtil;
+import cn.hutool.core.util.ReflectUtil;
+import lombok.SneakyThrows;
+
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.Method;
+
+/**
+ * {@link FieldGetter} 的字段名缓存，key 为 lambda 生成的类。
+ * 同一处代码创建的 lambda 共用一个类，引用的方法也相同，因此字段名只需在第一次使用时解析一次
+ * @Author JZ
+ * @Date 2021/7/21 9:42
+ */
+final class FieldNameCache {
+
+    private static final ClassValue<FieldName> FIELD_NAME_CACHE = new ClassValue<FieldName>() {
+        @Override
+        protected FieldName computeValue(Class<?> type) {
+            return new FieldName();
+        }
+    };
+
+    private FieldNameCache() {}
+
+    static String getFieldName(FieldGetter<?, ?> fieldGetter) {
+        FieldName fieldName = FIELD_NAME_CACHE.get(fieldGetter.getClass());
+        String name = fieldName.name;
+        if (name == null) {
+            // 并发时可能重复解析，结果相同
+            name = resolveFieldName(fieldGetter);
+            fieldName.name = name;
+        }
+        return name;
+    }
+
+    /**
+     * 通过 lambda 的 writeReplace 方法获取引用的 getter 方法名，并转换为字段名
+     */
+    @SneakyThrows
+    static String resolveFieldName(FieldGetter<?, ?> fieldGetter) {
+        Method method = ReflectUtil.getMethodByName(fieldGetter.getClass(), "writeReplace");
+        method.setAccessible(true);
+        SerializedLambda serializedLambda = (SerializedLambda) method.invoke(fieldGetter);
+        String methodName = serializedLambda.getImplMethodName();
+        if (methodName.startsWith("get")) {
+            methodName = methodName.substring(3);
+        } else if (methodName.startsWith("is")) {
+            methodName = methodName.substring(2);
+        }
+        return CharSequenceUtil.lowerFirst(methodName);
+    }
+
+    private static class FieldName {
+
+        private volatile String name;
+
+    }
+
+}
@@ -9,18 +9,25 @@ import com.alibaba.excel.metadata.CellData;
 import com.alibaba.excel.metadata.Head;
 import com.alibaba.excel.metadata.property.ExcelContentProperty;
 import com.alibaba.excel.read.listener.ReadListener;
+import com.alibaba.excel.read.metadata.ReadSheet;
 import com.alibaba.excel.read.metadata.holder.ReadRowHolder;
+import com.alibaba.excel.read.metadata.holder.ReadSheetHolder;
+import com.alibaba.excel.read.metadata.holder.ReadWorkbookHolder;
 import com.alibaba.excel.read.metadata.property.ExcelReadHeadProperty;
 import com.alibaba.excel.read.processor.AnalysisEventProcessor;
 import com.alibaba.excel.util.ConverterUtils;
-import com.alibaba.excel.util.StringUtils;
 import com.jz.zeus.excel.exception.DataConvertException;
+import com.jz.zeus.excel.read.helper.CellErrorCollector;
+import com.jz.zeus.excel.read.helper.HeadMatcher;
+import lombok.Getter;
+import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @Author JZ
@@ -30,6 +37,83 @@ public class ZeusAnalysisEventProcessor implements AnalysisEventProcessor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ZeusAnalysisEventProcessor.class);
 
+    /**
+     * 需要读取的字段名，为null时读取所有字段
+     */
+    @Getter
+    @Setter
+    private Set<String> includeFieldNames;
+
+    /**
+     * 每个 sheet 中开始读取的数据行索引（包含），为null时从表头后第一行开始
+     */
+    @Setter
+    private Integer startRow;
+
+    /**
+     * 每个 sheet 中结束读取的数据行索引（包含），为null时读取至最后一行
+     */
+    @Setter
+    private Integer endRow;
+
+    /**
+     * 每个 sheet 中最多读取的数据行数，为null时不限制
+     */
+    @Setter
+    private Integer limit;
+
+    /**
+     * 是否只读取表头
+     */
+    @Setter
+    private boolean headOnly;
+
+    /**
+     * 读取的 sheet 总数，读取范围结束时用于判断是否可以直接停止解析
+     */
+    @Setter
+    private Integer sheetCount;
+
+    /**
+     * 数据转换错误收集器
+     */
+    @Getter
+    private final CellErrorCollector errorCollector = new CellErrorCollector();
+
+    /**
+     * 当前处理的 sheet
+     */
+    private ReadSheetHolder currentSheetHolder;
+
+    /**
+     * 当前 sheet 中已读取的数据行数
+     */
+    private int currentSheetDataNum;
+
+    /**
+     * 当前 sheet 的读取范围是否已结束
+     */
+    private boolean currentSheetFinished;
+
+    /**
+     * 获取当前读取流程使用的 {@link ZeusAnalysisEventProcessor}
+     * @return      未使用 {@link ZeusAnalysisEventProcessor} 时返回null
+     */
+    public static ZeusAnalysisEventProcessor of(AnalysisContext analysisContext) {
+        AnalysisEventProcessor analysisEventProcessor = analysisContext.analysisEventProcessor();
+        if (analysisEventProcessor instanceof ZeusAnalysisEventProcessor) {
+            return (ZeusAnalysisEventProcessor) analysisEventProcessor;
+        }
+        return null;
+    }
+
+    /**
+     * 字段是否需要读取
+     */
+    public boolean isIncluded(String fieldName) {
+        return includeFieldNames == null || includeFieldNames.contains(fieldName);
+    }
+
     @Override
     public void extra(AnalysisContext analysisContext) {
         dealExtra(analysisContext);
@@ -37,6 +121,15 @@ public class ZeusAnalysisEventProcessor implements AnalysisEventProcessor {
 
     @Override
     public void endRow(AnalysisContext analysisContext) {
+        if (analysisContext.readSheetHolder() != currentSheetHolder) {
+            currentSheetHolder = analysisContext.readSheetHolder();
+            currentSheetDataNum = 0;
+            currentSheetFinished = false;
+            errorCollector.reset();
+        }
+        if (currentSheetFinished) {
+            return;
+        }
         if (RowTypeEnum.EMPTY.equals(analysisContext.readRowHolder().getRowType())) {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.warn("Empty row!");
@@ -45,7 +138,68 @@ public class ZeusAnalysisEventProcessor implements AnalysisEventProcessor {
                 return;
             }
         }
+        int rowIndex = analysisContext.readRowHolder().getRowIndex();
+        int headRowNumber = analysisContext.readSheetHolder().getHeadRowNumber();
+        boolean isData = rowIndex >= headRowNumber;
+        if (isData && isDataRangeEmpty()) {
+            // 没有需要读取的数据行，表头行数为0时在第一行直接结束
+            finishCurrentSheet(analysisContext);
+            return;
+        }
+        if (isData && startRow != null && rowIndex < startRow) {
+            return;
+        }
+        if (isData && endRow != null && rowIndex > endRow) {
+            finishCurrentSheet(analysisContext);
+            return;
+        }
         dealData(analysisContext);
+        if (isData) {
+            currentSheetDataNum++;
+        }
+        boolean finished;
+        if (isData) {
+            finished = (limit != null && currentSheetDataNum >= limit) || (endRow != null && rowIndex >= endRow);
+        } else {
+            finished = isDataRangeEmpty() && rowIndex + 1 >= headRowNumber;
+        }
+        if (finished) {
+            finishCurrentSheet(analysisContext);
+        }
+    }
+
+    /**
+     * 当前 sheet 的读取范围已结束，若为最后一个需要读取的 sheet 则直接停止解析，否则忽略该 sheet 剩余的行
+     */
+    private void finishCurrentSheet(AnalysisContext analysisContext) {
+        currentSheetFinished = true;
+        if (isLastSheet(analysisContext)) {
+            endSheet(analysisContext);
+            throw new ExcelAnalysisStopException();
+        }
+    }
+
+    private boolean isLastSheet(AnalysisContext analysisContext) {
+        ReadWorkbookHolder readWorkbookHolder = analysisContext.readWorkbookHolder();
+        if (Boolean.TRUE.equals(readWorkbookHolder.getReadAll())) {
+            return sheetCount != null && analysisContext.readSheetHolder().getSheetNo() >= sheetCount - 1;
+        }
+        List<ReadSheet> readSheets = readWorkbookHolder.getParameterSheetDataList();
+        return readSheets == null || readSheets.size() <= 1;
+    }
+
+    /**
+     * 是否没有需要读取的数据行：只读取表头或开始行在结束行之后
+     */
+    private boolean isDataRangeEmpty() {
+        return headOnly || (startRow != null && endRow != null && startRow > endRow);
+    }
+
+    /**
+     * 是否设置了读取范围
+     */
+    public boolean hasReadRange() {
+        return headOnly || startRow != null || endRow != null || limit != null;
     }
 
     @Override
@@ -81,6 +235,27 @@ public class ZeusAnalysisEventProcessor implements AnalysisEventProcessor {
         }
     }
 
+    /**
+     * 以异常的方式将新增的数据转换错误信息通知批量接收错误信息的监听器之外的监听器，
+     * 没有监听器批量接收时直接取出错误信息
+     */
+    private void onConvertException(AnalysisContext analysisContext) {
+        DataConvertException e = new DataConvertException(errorCollector.isAttached()
+                ? errorCollector.takeUnnotified() : errorCollector.drain());
+        for (ReadListener readListenerException : analysisContext.currentReadHolder().readListenerList()) {
+            if (errorCollector.isAttached(readListenerException)) {
+                continue;
+            }
+            try {
+                readListenerException.onException(e, analysisContext);
+            } catch (RuntimeException re) {
+                throw re;
+            } catch (Exception e1) {
+                throw new ExcelAnalysisException(e1.getMessage(), e1);
+            }
+        }
+    }
+
     private void dealData(AnalysisContext analysisContext) {
         ReadRowHolder readRowHolder = analysisContext.readRowHolder();
         Map<Integer, CellData> cellDataMap = (Map)readRowHolder.getCellMap();
@@ -108,6 +283,9 @@ public class ZeusAnalysisEventProcessor implements AnalysisEventProcessor {
                 onException(analysisContext, e);
                 break;
             }
+            if (errorCollector.hasUnnotified()) {
+                onConvertException(analysisContext);
+            }
             if (!readListener.hasNext(analysisContext)) {
                 throw new ExcelAnalysisStopException();
             }
@@ -125,6 +303,8 @@ public class ZeusAnalysisEventProcessor implements AnalysisEventProcessor {
         Map<Integer, Head> tmpHeadMap = new HashMap<Integer, Head>(headMapData.size() * 4 / 3 + 1);
         Map<Integer, ExcelContentProperty> tmpContentPropertyMap =
                 new HashMap<Integer, ExcelContentProperty>(contentPropertyMapData.size() * 4 / 3 + 1);
+        HeadMatcher headMatcher = HeadMatcher.match(excelHeadPropertyData.getHeadClazz(), headMapData, dataMap,
+                analysisContext.currentReadHolder().globalConfiguration().getAutoTrim());
         for (Map.Entry<Integer, Head> entry : headMapData.entrySet()) {
             Head headData = entry.getValue();
             if (headData.getForceIndex() || !headData.getForceName()) {
@@ -132,26 +312,11 @@ public class ZeusAnalysisEventProcessor implements AnalysisEventProcessor {
                 tmpContentPropertyMap.put(entry.getKey(), contentPropertyMapData.get(entry.getKey()));
                 continue;
             }
-            List<String> headNameList = headData.getHeadNameList();
-            String headName = headNameList.get(headNameList.size() - 1);
-            for (Map.Entry<Integer, String> stringEntry : dataMap.entrySet()) {
-                if (stringEntry == null) {
-                    continue;
-                }
-                String headString = stringEntry.getValue();
-                Integer stringKey = stringEntry.getKey();
-                if (StringUtils.isEmpty(headString)) {
-                    continue;
-                }
-                if (analysisContext.currentReadHolder().globalConfiguration().getAutoTrim()) {
-                    headString = headString.trim();
-                }
-                if (headName.equals(headString)) {
-                    headData.setColumnIndex(stringKey);
-                    tmpHeadMap.put(stringKey, headData);
-                    tmpContentPropertyMap.put(stringKey, contentPropertyMapData.get(entry.getKey()));
-                    break;
-                }
+            Integer columnIndex = headMatcher.getColumnIndex(entry.getKey());
+            if (columnIndex != null) {
+                headData.setColumnIndex(columnIndex);
+                tmpHeadMap.put(columnIndex, headData);
+                tmpContentPropertyMap.put(columnIndex, contentPropertyMapData.get(entry.getKey()));
             }
         }
         excelHeadPropertyData.setHeadMap(tmpHeadMap);
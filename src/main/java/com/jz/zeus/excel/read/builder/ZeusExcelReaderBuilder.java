@@ -1,5 +1,10 @@
 package com.jz.zeus.excel.read.builder;
 
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.lang.Assert;
+import cn.hutool.core.text.CharSequenceUtil;
 import cn.hutool.core.util.ReflectUtil;
 import com.alibaba.excel.ExcelReader;
 import com.alibaba.excel.analysis.ExcelAnalyserImpl;
@@ -10,16 +15,31 @@ import com.alibaba.excel.context.xlsx.DefaultXlsxReadContext;
 import com.alibaba.excel.enums.CellExtraTypeEnum;
 import com.alibaba.excel.event.AnalysisEventListener;
 import com.alibaba.excel.event.SyncReadListener;
+import com.alibaba.excel.exception.ExcelAnalysisException;
 import com.alibaba.excel.read.builder.ExcelReaderBuilder;
 import com.alibaba.excel.read.builder.ExcelReaderSheetBuilder;
+import com.alibaba.excel.read.listener.ReadListener;
+import com.alibaba.excel.read.metadata.ReadSheet;
+import com.alibaba.excel.read.metadata.ReadWorkbook;
 import com.alibaba.excel.support.ExcelTypeEnum;
+import com.jz.zeus.excel.CellErrorInfo;
+import com.jz.zeus.excel.interfaces.FieldGetter;
 import com.jz.zeus.excel.read.ZeusAnalysisEventProcessor;
+import com.jz.zeus.excel.read.helper.SharedReadCache;
+import com.jz.zeus.excel.read.helper.SharedStringsSkippingSAXParserFactory;
 import com.jz.zeus.excel.read.listener.ModelBuildEventListener;
+import com.jz.zeus.excel.read.listener.StreamReadIterator;
+import com.jz.zeus.excel.read.listener.StreamReadListener;
 
 import javax.xml.parsers.SAXParserFactory;
 import java.io.File;
 import java.io.InputStream;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @Author JZ
@@ -27,12 +47,39 @@ import java.util.List;
  */
 public class ZeusExcelReaderBuilder {
 
+    private static final int DEFAULT_STREAM_BUFFER_SIZE = 1000;
+
     private ExcelReaderBuilder excelReaderBuilder;
 
     private boolean useEasyExcelDefaultListener;
 
     private boolean useZeusDefaultListener;
 
+    /**
+     * 需要读取的字段名，为null时读取所有字段
+     */
+    private Set<String> includeFieldNames;
+
+    /**
+     * 每个 sheet 中开始读取的数据行索引（包含）
+     */
+    private Integer startRow;
+
+    /**
+     * 每个 sheet 中结束读取的数据行索引（包含）
+     */
+    private Integer endRow;
+
+    /**
+     * 每个 sheet 中最多读取的数据行数
+     */
+    private Integer limit;
+
+    /**
+     * 是否只读取表头
+     */
+    private boolean headOnly;
+
     public ZeusExcelReaderBuilder() {
         this.useZeusDefaultListener = true;
         excelReaderBuilder = new ExcelReaderBuilder();
@@ -178,15 +225,111 @@ public class ZeusExcelReaderBuilder {
         return this;
     }
 
+    /**
+     * 设置表头
+     * @param clazz     表头对应的 class
+     */
+    public ZeusExcelReaderBuilder head(Class<?> clazz) {
+        excelReaderBuilder.head(clazz);
+        return this;
+    }
+
+    /**
+     * 设置表头
+     * @param head      外层list下标为列索引，内层list下标为行索引
+     */
+    public ZeusExcelReaderBuilder head(List<List<String>> head) {
+        excelReaderBuilder.head(head);
+        return this;
+    }
+
+    /**
+     * 只读取指定的字段，其他列不做数据转换，扩展列字段未指定时不读取扩展列数据
+     * @param fieldNames    字段名
+     */
+    public ZeusExcelReaderBuilder includeFields(String... fieldNames) {
+        if (includeFieldNames == null) {
+            includeFieldNames = new HashSet<>();
+        }
+        Collections.addAll(includeFieldNames, fieldNames);
+        return this;
+    }
+
+    /**
+     * 只读取指定的字段
+     * @see #includeFields(String...)
+     */
+    @SafeVarargs
+    public final <T> ZeusExcelReaderBuilder includeFields(FieldGetter<T, ?>... fieldGetters) {
+        String[] fieldNames = new String[fieldGetters.length];
+        for (int i = 0; i < fieldGetters.length; i++) {
+            fieldNames[i] = fieldGetters[i].getFieldName();
+        }
+        return includeFields(fieldNames);
+    }
+
+    /**
+     * 每个 sheet 从指定的行开始读取数据，之前的数据行不做数据转换且不会通知监听器
+     * @param startRow      行索引，从0开始，包含表头行
+     */
+    public ZeusExcelReaderBuilder startRow(int startRow) {
+        Assert.isTrue(startRow >= 0, "StartRow can not be less than 0");
+        this.startRow = startRow;
+        return this;
+    }
+
+    /**
+     * 每个 sheet 读取到指定的行后结束，最后一个 sheet 读取完毕时直接停止解析
+     * @param endRow        行索引（包含），从0开始，包含表头行
+     */
+    public ZeusExcelReaderBuilder endRow(int endRow) {
+        Assert.isTrue(endRow >= 0, "EndRow can not be less than 0");
+        this.endRow = endRow;
+        return this;
+    }
+
+    /**
+     * 每个 sheet 最多读取的数据行数，用于预览文件前几行数据
+     * @param limit         最大行数
+     */
+    public ZeusExcelReaderBuilder limit(int limit) {
+        Assert.isTrue(limit > 0, "Limit has to be greater than 0");
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * 只读取表头，读取完表头行后即结束该 sheet 的读取，用于校验模板
+     */
+    public ZeusExcelReaderBuilder headOnly(boolean headOnly) {
+        this.headOnly = headOnly;
+        return this;
+    }
+
     public ExcelReader build() {
         excelReaderBuilder.useDefaultListener(useEasyExcelDefaultListener);
         if (useZeusDefaultListener) {
-            excelReaderBuilder.registerReadListener(new ModelBuildEventListener());
+            // 需要在其他监听器之前执行，以使后续监听器获取到转换后的数据
+            ReadWorkbook readWorkbook = (ReadWorkbook) ReflectUtil.getFieldValue(excelReaderBuilder, "readWorkbook");
+            readWorkbook.getCustomReadListenerList().add(0, new ModelBuildEventListener());
         }
-        ExcelReader excelReader = excelReaderBuilder.build();
+        return useZeusAnalysisEventProcessor(excelReaderBuilder.build());
+    }
+
+    private ExcelReader useZeusAnalysisEventProcessor(ExcelReader excelReader) {
         ExcelAnalyserImpl excelAnalyser = (ExcelAnalyserImpl) ReflectUtil.getFieldValue(excelReader, "excelAnalyser");
         DefaultXlsxReadContext xlsxReadContext = (DefaultXlsxReadContext) ReflectUtil.getFieldValue(excelAnalyser, "analysisContext");
-        ReflectUtil.setFieldValue(xlsxReadContext, "analysisEventProcessor", new ZeusAnalysisEventProcessor());
+        ZeusAnalysisEventProcessor analysisEventProcessor = new ZeusAnalysisEventProcessor();
+        analysisEventProcessor.setIncludeFieldNames(includeFieldNames);
+        analysisEventProcessor.setStartRow(startRow);
+        analysisEventProcessor.setEndRow(endRow);
+        analysisEventProcessor.setLimit(limit);
+        analysisEventProcessor.setHeadOnly(headOnly);
+        if (analysisEventProcessor.hasReadRange()) {
+            // 读取所有 sheet 时需要知道 sheet 总数，以便最后一个 sheet 读取完毕时直接停止解析
+            analysisEventProcessor.setSheetCount(excelReader.excelExecutor().sheetList().size());
+        }
+        ReflectUtil.setFieldValue(xlsxReadContext, "analysisEventProcessor", analysisEventProcessor);
         return excelReader;
     }
 
@@ -210,6 +353,212 @@ public class ZeusExcelReaderBuilder {
         return (List<T>)syncReadListener.getList();
     }
 
+    /**
+     * 以迭代器的方式读取所有 sheet 的数据，解析在单独的线程中进行，通过有界队列按需拉取，内存占用不随文件大小增长。
+     * 未读取完毕时需要调用 {@link StreamReadIterator#close()} 以结束解析，迭代器不再被引用后解析线程也会结束解析
+     * @param clazz     表头对应的 class
+     */
+    public <T> StreamReadIterator<T> iterator(Class<T> clazz) {
+        return iterator(clazz, DEFAULT_STREAM_BUFFER_SIZE);
+    }
+
+    /**
+     * @param clazz         表头对应的 class
+     * @param bufferSize    解析线程与读取线程之间缓冲的最大行数
+     * @see #iterator(Class)
+     */
+    public <T> StreamReadIterator<T> iterator(Class<T> clazz, int bufferSize) {
+        return iterator(clazz, bufferSize, null);
+    }
+
+    /**
+     * @param clazz         表头对应的 class
+     * @param bufferSize    解析线程与读取线程之间缓冲的最大行数
+     * @param errorHandler  数据转换错误信息的处理器，在解析线程中调用，为null时忽略错误信息
+     * @see #iterator(Class)
+     */
+    public <T> StreamReadIterator<T> iterator(Class<T> clazz, int bufferSize, Consumer<CellErrorInfo> errorHandler) {
+        head(clazz);
+        StreamReadListener<T> streamReadListener = new StreamReadListener<>(bufferSize, errorHandler);
+        excelReaderBuilder.registerReadListener(streamReadListener);
+        ExcelReader excelReader = build();
+        StreamReadIterator<T> iterator = new StreamReadIterator<>(streamReadListener);
+        // 解析线程只引用监听器，不引用迭代器
+        Thread parseThread = new Thread(() -> {
+            Throwable failure = null;
+            try {
+                excelReader.readAll();
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                try {
+                    excelReader.finish();
+                } catch (Throwable e) {
+                    failure = failure == null ? e : failure;
+                }
+                streamReadListener.finish(failure);
+            }
+        }, "zeus-excel-stream");
+        parseThread.setDaemon(true);
+        parseThread.start();
+        return iterator;
+    }
+
+    /**
+     * 以 Stream 的方式读取所有 sheet 的数据，未读取完毕时需要关闭 Stream 以结束解析，Stream 不再被引用后解析线程也会结束解析
+     * @param clazz     表头对应的 class
+     * @see #iterator(Class)
+     */
+    public <T> Stream<T> stream(Class<T> clazz) {
+        return stream(clazz, DEFAULT_STREAM_BUFFER_SIZE);
+    }
+
+    /**
+     * @param clazz         表头对应的 class
+     * @param bufferSize    解析线程与读取线程之间缓冲的最大行数
+     * @see #stream(Class)
+     */
+    public <T> Stream<T> stream(Class<T> clazz, int bufferSize) {
+        return stream(clazz, bufferSize, null);
+    }
+
+    /**
+     * @param clazz         表头对应的 class
+     * @param bufferSize    解析线程与读取线程之间缓冲的最大行数
+     * @param errorHandler  数据转换错误信息的处理器，在解析线程中调用，为null时忽略错误信息
+     * @see #stream(Class)
+     */
+    public <T> Stream<T> stream(Class<T> clazz, int bufferSize, Consumer<CellErrorInfo> errorHandler) {
+        StreamReadIterator<T> iterator = iterator(clazz, bufferSize, errorHandler);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * 并行读取所有 sheet，每个 sheet 在单独的线程中解析，拥有独立的 AnalysisContext、{@link ZeusAnalysisEventProcessor}
+     * 及由 listenerFactory 创建的监听器，各 sheet 共享只读的 sharedStrings，sharedStrings.xml 只解析一次。
+     * 各 sheet 只使用 listenerFactory 创建的监听器，已注册到该 builder 的监听器（如调用过 {@link #doReadAllSync()}）不会被使用，此时直接抛出异常
+     * @param threadNum           最大线程数
+     * @param listenerFactory     为每个 sheet 创建监听器，返回的监听器只会在该 sheet 的解析线程中使用
+     */
+    public void doReadAllParallel(int threadNum, Function<ReadSheet, ? extends ReadListener<?>> listenerFactory) {
+        Assert.isTrue(threadNum > 0, "ThreadNum has to be greater than 0");
+        Assert.notNull(listenerFactory, "ListenerFactory can not be null");
+        ReadWorkbook readWorkbook = (ReadWorkbook) ReflectUtil.getFieldValue(excelReaderBuilder, "readWorkbook");
+        List<ReadListener> registeredListeners = readWorkbook.getCustomReadListenerList();
+        Assert.isTrue(registeredListeners == null || registeredListeners.stream().allMatch(ModelBuildEventListener.class::isInstance),
+                "Registered listeners are not used when reading in parallel, create them in listenerFactory");
+        File tempFile = toTempFile(readWorkbook);
+        ExcelReader sharedStringsReader = null;
+        ExecutorService executorService = null;
+        try {
+            sharedStringsReader = useZeusAnalysisEventProcessor(new ExcelReader(copyReadWorkbook(readWorkbook, tempFile, null)));
+            ReadCache sharedReadCache = sharedStringsReader.analysisContext().readWorkbookHolder().getReadCache();
+            List<ReadSheet> readSheets = sharedStringsReader.excelExecutor().sheetList();
+            if (readSheets.isEmpty()) {
+                return;
+            }
+            executorService = Executors.newFixedThreadPool(Math.min(threadNum, readSheets.size()));
+            List<Future<?>> futures = new ArrayList<>(readSheets.size());
+            for (ReadSheet sheet : readSheets) {
+                futures.add(executorService.submit(() -> {
+                    ReadSheet readSheet = new ReadSheet(sheet.getSheetNo(), sheet.getSheetName());
+                    ReadWorkbook sheetReadWorkbook = copyReadWorkbook(readWorkbook, tempFile, sharedReadCache);
+                    sheetReadWorkbook.getCustomReadListenerList().add(listenerFactory.apply(readSheet));
+                    ExcelReader excelReader = useZeusAnalysisEventProcessor(new ExcelReader(sheetReadWorkbook));
+                    try {
+                        excelReader.read(readSheet);
+                    } finally {
+                        excelReader.finish();
+                    }
+                }));
+            }
+            awaitAll(futures);
+        } finally {
+            if (executorService != null) {
+                executorService.shutdownNow();
+            }
+            if (sharedStringsReader != null) {
+                sharedStringsReader.finish();
+            }
+            FileUtil.del(tempFile);
+        }
+    }
+
+    /**
+     * 并行同步读取所有 sheet，结果按 sheet 顺序合并
+     * @param threadNum     最大线程数
+     */
+    public <T> List<T> doReadAllSyncParallel(int threadNum) {
+        Map<Integer, SyncReadListener> sheetListenerMap = new ConcurrentHashMap<>();
+        doReadAllParallel(threadNum, readSheet -> sheetListenerMap.computeIfAbsent(readSheet.getSheetNo(),
+                k -> new SyncReadListener()));
+        List<T> result = new ArrayList<>();
+        new TreeMap<>(sheetListenerMap).values().forEach(listener -> result.addAll((List<T>) listener.getList()));
+        return result;
+    }
+
+    /**
+     * 多个线程无法共享同一个输入流，以输入流读取时先将其写入临时文件
+     * @return      临时文件，以文件读取时为null
+     */
+    private File toTempFile(ReadWorkbook readWorkbook) {
+        if (readWorkbook.getFile() != null || readWorkbook.getInputStream() == null) {
+            return null;
+        }
+        File tempFile = FileUtil.createTempFile("zeus-excel", ".tmp", null, true);
+        FileUtil.writeFromStream(readWorkbook.getInputStream(), tempFile);
+        if (!Boolean.FALSE.equals(readWorkbook.getAutoCloseStream())) {
+            IoUtil.close(readWorkbook.getInputStream());
+        }
+        return tempFile;
+    }
+
+    /**
+     * 复制 ReadWorkbook 的配置，监听器列表为新建的列表，不包含原有的监听器
+     * @param file              不为null时使用该文件代替原有的文件及输入流
+     * @param sharedReadCache   不为null时以只读方式共享该 sharedStrings 缓存，未指定 SAXParserFactory 时跳过 sharedStrings.xml 的解析
+     */
+    private ReadWorkbook copyReadWorkbook(ReadWorkbook readWorkbook, File file, ReadCache sharedReadCache) {
+        ReadWorkbook copy = BeanUtil.copyProperties(readWorkbook, ReadWorkbook.class);
+        if (file != null) {
+            copy.setFile(file);
+            copy.setInputStream(null);
+        }
+        if (sharedReadCache != null) {
+            copy.setReadCacheSelector(null);
+            copy.setReadCache(new SharedReadCache(sharedReadCache));
+            if (CharSequenceUtil.isEmpty(copy.getXlsxSAXParserFactoryName())) {
+                copy.setXlsxSAXParserFactoryName(SharedStringsSkippingSAXParserFactory.class.getName());
+            }
+        }
+        copy.setUseDefaultListener(useEasyExcelDefaultListener);
+        List<ReadListener> readListeners = new ArrayList<>();
+        if (useZeusDefaultListener) {
+            readListeners.add(new ModelBuildEventListener());
+        }
+        copy.setCustomReadListenerList(readListeners);
+        return copy;
+    }
+
+    private void awaitAll(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ExcelAnalysisException("Interrupted while reading sheets", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new ExcelAnalysisException(cause.getMessage(), cause);
+            }
+        }
+    }
+
     public ExcelReaderSheetBuilder sheet() {
         return sheet(null, null);
     }
@@ -0,0 +1,151 @@
+package com.jz.zeus.excel.read.helper;
+
+import cn.hutool.core.lang.Assert;
+import com.alibaba.excel.metadata.Cell;
+import com.alibaba.excel.metadata.CellData;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自适应批量大小，根据每批数据处理的耗时及缓存数据占用的内存估算值，在上下限之间调整下一批的数据量，
+ * 使每批的处理耗时接近目标耗时且占用内存不超过上限。
+ * 耗时与内存的统计可在不同线程中记录，每个实例只能由一个监听器使用
+ * @Author JZ
+ * @Date 2021/7/14 15:37
+ */
+public class AdaptiveBatchSizer {
+
+    private static final int DEFAULT_INITIAL_BATCH_SIZE = 200;
+
+    /**
+     * 单元格对象本身的估算内存
+     */
+    private static final int CELL_OVERHEAD_BYTES = 64;
+
+    /**
+     * 每行数据对象本身的估算内存
+     */
+    private static final int ROW_OVERHEAD_BYTES = 64;
+
+    /**
+     * 新统计值所占的权重
+     */
+    private static final double SMOOTHING_FACTOR = 0.5;
+
+    private final int minBatchSize;
+
+    private final int maxBatchSize;
+
+    private final long targetLatencyNanos;
+
+    private final long maxBatchBytes;
+
+    /**
+     * 平均每行的处理耗时，未统计时为0
+     */
+    private volatile double rowLatencyNanos;
+
+    /**
+     * 平均每行的估算内存，未统计时为0
+     */
+    private volatile double rowBytes;
+
+    private volatile int batchSize;
+
+    /**
+     * @param minBatchSize          最小批量大小
+     * @param maxBatchSize          最大批量大小
+     * @param targetLatencyMillis   每批数据的目标处理耗时
+     * @param maxBatchBytes         每批数据的估算内存上限
+     */
+    public AdaptiveBatchSizer(int minBatchSize, int maxBatchSize, long targetLatencyMillis, long maxBatchBytes) {
+        Assert.isTrue(minBatchSize > 0, "MinBatchSize has to be greater than 0");
+        Assert.isTrue(maxBatchSize >= minBatchSize, "MaxBatchSize can not be less than minBatchSize");
+        Assert.isTrue(targetLatencyMillis > 0, "TargetLatencyMillis has to be greater than 0");
+        Assert.isTrue(maxBatchBytes > 0, "MaxBatchBytes has to be greater than 0");
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+        this.maxBatchBytes = maxBatchBytes;
+        this.batchSize = clamp(DEFAULT_INITIAL_BATCH_SIZE);
+    }
+
+    /**
+     * 下一批数据的数量
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * 缓存数据的估算内存是否已达到上限
+     */
+    public boolean isMemoryExceeded(long batchBytes) {
+        return batchBytes >= maxBatchBytes;
+    }
+
+    /**
+     * 估算一行数据占用的内存
+     * @param cellMap       key 列索引、value 单元格
+     */
+    public static long estimateRowBytes(Map<Integer, Cell> cellMap) {
+        long bytes = ROW_OVERHEAD_BYTES;
+        if (cellMap == null) {
+            return bytes;
+        }
+        for (Cell cell : cellMap.values()) {
+            bytes += CELL_OVERHEAD_BYTES;
+            if (cell instanceof CellData) {
+                String stringValue = ((CellData) cell).getStringValue();
+                if (stringValue != null) {
+                    bytes += stringValue.length() * 2L;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 记录一批数据的估算内存
+     */
+    public void recordBytes(int rowNum, long batchBytes) {
+        if (rowNum <= 0) {
+            return;
+        }
+        rowBytes = smooth(rowBytes, (double) batchBytes / rowNum);
+        resize();
+    }
+
+    /**
+     * 记录一批数据的处理耗时
+     */
+    public void recordLatency(int rowNum, long elapsedNanos) {
+        if (rowNum <= 0) {
+            return;
+        }
+        rowLatencyNanos = smooth(rowLatencyNanos, (double) Math.max(elapsedNanos, 1) / rowNum);
+        resize();
+    }
+
+    private synchronized void resize() {
+        double size = maxBatchSize;
+        if (rowLatencyNanos > 0) {
+            size = Math.min(size, targetLatencyNanos / rowLatencyNanos);
+        }
+        if (rowBytes > 0) {
+            size = Math.min(size, maxBatchBytes / rowBytes);
+        }
+        // 单次最多扩大一倍，避免偶然的快速批次导致批量过大
+        batchSize = clamp((int) Math.min(size, batchSize * 2L));
+    }
+
+    private int clamp(int size) {
+        return Math.max(minBatchSize, Math.min(maxBatchSize, size));
+    }
+
+    private static double smooth(double current, double sample) {
+        return current == 0 ? sample : current + (sample - current) * SMOOTHING_FACTOR;
+    }
+
+}
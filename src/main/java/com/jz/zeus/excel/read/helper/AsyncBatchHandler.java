@@ -0,0 +1,131 @@
+package com.jz.zeus.excel.read.helper;
+
+import cn.hutool.core.lang.Assert;
+import com.alibaba.excel.exception.ExcelAnalysisException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 异步批量数据处理，解析线程将批数据放入有界队列后继续解析，由 executor 按提交顺序依次处理。
+ * 队列满时 {@link #submit} 阻塞解析线程；处理过程中出现的异常会在下一次 {@link #submit} 或 {@link #await} 时抛出
+ * @Author JZ
+ * @Date 2021/7/6 14:21
+ */
+public class AsyncBatchHandler<B> {
+
+    private final Executor executor;
+
+    private final BlockingQueue<B> queue;
+
+    private final Consumer<B> handler;
+
+    /**
+     * 是否已有处理任务在 executor 中执行，同一时间只允许一个，以保证处理顺序
+     */
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private final Object lock = new Object();
+
+    /**
+     * 已提交但未处理完毕的批次数
+     */
+    private int pending;
+
+    /**
+     * 处理过程中出现的第一个异常，出现异常后剩余批次将被丢弃
+     */
+    private volatile Throwable failure;
+
+    public AsyncBatchHandler(Executor executor, int queueCapacity, Consumer<B> handler) {
+        Assert.notNull(executor, "Executor can not be null");
+        Assert.notNull(handler, "Handler can not be null");
+        Assert.isTrue(queueCapacity > 0, "QueueCapacity has to be greater than 0");
+        this.executor = executor;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.handler = handler;
+    }
+
+    /**
+     * 提交一批数据，队列已满时阻塞直到有空位
+     */
+    public void submit(B batch) {
+        throwIfFailed();
+        synchronized (lock) {
+            pending++;
+        }
+        try {
+            queue.put(batch);
+        } catch (InterruptedException e) {
+            finishOne();
+            Thread.currentThread().interrupt();
+            throw new ExcelAnalysisException("Interrupted while waiting for data handle", e);
+        }
+        scheduleDrain();
+    }
+
+    /**
+     * 等待所有已提交的数据处理完毕
+     */
+    public void await() {
+        synchronized (lock) {
+            while (pending > 0) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ExcelAnalysisException("Interrupted while waiting for data handle", e);
+                }
+            }
+        }
+        throwIfFailed();
+    }
+
+    private void throwIfFailed() {
+        Throwable e = failure;
+        if (e != null) {
+            throw new ExcelAnalysisException("Data handle failed: " + e.getMessage(), e);
+        }
+    }
+
+    private void scheduleDrain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RuntimeException e) {
+            draining.set(false);
+            throw e;
+        }
+    }
+
+    private void drain() {
+        do {
+            B batch;
+            while ((batch = queue.poll()) != null) {
+                try {
+                    if (failure == null) {
+                        handler.accept(batch);
+                    }
+                } catch (Throwable e) {
+                    failure = e;
+                } finally {
+                    finishOne();
+                }
+            }
+            draining.set(false);
+        } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    private void finishOne() {
+        synchronized (lock) {
+            pending--;
+            lock.notifyAll();
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.jz.zeus.excel.read.helper;
+
+import com.jz.zeus.excel.CellErrorInfo;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 数据转换错误收集器，由 {@link com.jz.zeus.excel.read.ZeusAnalysisEventProcessor} 持有，每个解析线程一个。
+ * 数据转换失败时直接记录错误信息而不抛出异常，由调用过 {@link #attach(Object)} 的监听器批量取出，每个监听器都会取出全部错误信息；
+ * 其他监听器仍逐行以 {@link com.jz.zeus.excel.exception.DataConvertException} 的方式接收错误信息
+ * @Author JZ
+ * @Date 2021/7/15 10:21
+ */
+public class CellErrorCollector {
+
+    private final List<CellErrorInfo> errorInfos = new ArrayList<>();
+
+    /**
+     * 负责取出错误信息的监听器，value 为该监听器在 errorInfos 中已取出的错误信息数
+     */
+    private final Map<Object, Integer> attachedListeners = new IdentityHashMap<>();
+
+    /**
+     * errorInfos 中已以异常方式通知其他监听器的错误信息数
+     */
+    private int notifiedNum;
+
+    /**
+     * 声明由该监听器负责取出错误信息，该监听器不再以异常的方式接收错误信息，切换 sheet 后失效
+     */
+    public void attach(Object listener) {
+        attachedListeners.putIfAbsent(listener, 0);
+    }
+
+    /**
+     * 是否有监听器负责取出错误信息
+     */
+    public boolean isAttached() {
+        return !attachedListeners.isEmpty();
+    }
+
+    public boolean isAttached(Object listener) {
+        return attachedListeners.containsKey(listener);
+    }
+
+    public void add(CellErrorInfo errorInfo) {
+        errorInfos.add(errorInfo);
+    }
+
+    public boolean isEmpty() {
+        return errorInfos.isEmpty();
+    }
+
+    /**
+     * 是否有尚未通知其他监听器的错误信息
+     */
+    public boolean hasUnnotified() {
+        return errorInfos.size() > notifiedNum;
+    }
+
+    /**
+     * 获取尚未通知其他监听器的错误信息，错误信息仍保留，由负责的监听器取出
+     */
+    public List<CellErrorInfo> takeUnnotified() {
+        List<CellErrorInfo> result = new ArrayList<>(errorInfos.subList(notifiedNum, errorInfos.size()));
+        notifiedNum = errorInfos.size();
+        return result;
+    }
+
+    /**
+     * 取出所有错误信息
+     */
+    public List<CellErrorInfo> drain() {
+        List<CellErrorInfo> result = new ArrayList<>(errorInfos);
+        errorInfos.clear();
+        notifiedNum = 0;
+        return result;
+    }
+
+    /**
+     * 将该监听器尚未取出的错误信息依次交给 consumer，所有负责的监听器都取出后才清除错误信息
+     * @param listener      调用过 {@link #attach(Object)} 的监听器
+     */
+    public void drainTo(Object listener, Consumer<CellErrorInfo> consumer) {
+        Integer drainedNum = attachedListeners.get(listener);
+        if (drainedNum == null) {
+            return;
+        }
+        int size = errorInfos.size();
+        for (int i = drainedNum; i < size; i++) {
+            consumer.accept(errorInfos.get(i));
+        }
+        attachedListeners.put(listener, size);
+        compact();
+    }
+
+    /**
+     * 清除所有负责的监听器均已取出且已通知其他监听器的错误信息
+     */
+    private void compact() {
+        int removeNum = notifiedNum;
+        for (Integer drainedNum : attachedListeners.values()) {
+            removeNum = Math.min(removeNum, drainedNum);
+        }
+        if (removeNum == 0) {
+            return;
+        }
+        if (removeNum == errorInfos.size()) {
+            errorInfos.clear();
+        } else {
+            errorInfos.subList(0, removeNum).clear();
+        }
+        notifiedNum -= removeNum;
+        for (Map.Entry<Object, Integer> entry : attachedListeners.entrySet()) {
+            entry.setValue(entry.getValue() - removeNum);
+        }
+    }
+
+    /**
+     * 切换 sheet 时清空错误信息并解除监听器
+     */
+    public void reset() {
+        errorInfos.clear();
+        notifiedNum = 0;
+        attachedListeners.clear();
+    }
+
+}
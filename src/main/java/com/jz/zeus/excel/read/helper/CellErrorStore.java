@@ -0,0 +1,399 @@
+package com.jz.zeus.excel.read.helper;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.text.CharSequenceUtil;
+import com.alibaba.excel.exception.ExcelAnalysisException;
+import com.jz.zeus.excel.CellErrorInfo;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 单元格错误信息的紧凑存储，每条错误信息以多个 int 数组按列保存，字段名、表头名及错误信息列表去重后以编号引用。
+ * 内存中的错误信息数超过 spillThreshold 时，除行索引外的数据写入临时文件，临时文件在 {@link #clear()} 或 {@link #close()} 时删除。
+ * 对外提供只读的 {@code Map<Integer, List<CellErrorInfo>>} 视图，key 为行索引并按升序迭代，value 为不可修改的列表，
+ * put、remove 等修改操作均抛出 {@link UnsupportedOperationException}，新增错误信息需使用 {@link #add}。
+ * 列表中的 {@link CellErrorInfo} 每次访问时新建，修改返回的对象不会影响存储的数据
+ * @Author JZ
+ * @Date 2021/7/16 11:02
+ */
+public class CellErrorStore extends AbstractMap<Integer, List<CellErrorInfo>> implements Closeable {
+
+    private static final int NULL_ID = -1;
+
+    /**
+     * 写入临时文件的每条错误信息的字节数：列索引、字段名编号、表头名编号、错误信息列表编号
+     */
+    private static final int RECORD_BYTES = 16;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * 内存中最多保存的错误信息数，小于等于0时不写入临时文件
+     */
+    private final int spillThreshold;
+
+    /**
+     * 所有错误信息的行索引，下标为错误信息编号
+     */
+    private int[] rowIndexes = new int[INITIAL_CAPACITY];
+
+    /**
+     * 内存中的错误信息，下标为错误信息编号减去 spilledSize
+     */
+    private int[] columnIndexes = new int[INITIAL_CAPACITY];
+
+    private int[] fieldNameIds = new int[INITIAL_CAPACITY];
+
+    private int[] headNameIds = new int[INITIAL_CAPACITY];
+
+    private int[] errorMsgsIds = new int[INITIAL_CAPACITY];
+
+    private int size;
+
+    /**
+     * 已写入临时文件的错误信息数
+     */
+    private int spilledSize;
+
+    private final List<String> names = new ArrayList<>();
+
+    private final Map<String, Integer> nameIdMap = new HashMap<>();
+
+    private final List<List<String>> errorMsgsList = new ArrayList<>();
+
+    private final Map<List<String>, Integer> errorMsgsIdMap = new HashMap<>();
+
+    private File spillFile;
+
+    private RandomAccessFile spillAccess;
+
+    private final byte[] recordBuffer = new byte[RECORD_BYTES];
+
+    /**
+     * 按行索引排序后的错误信息编号，新增错误信息后置为null，访问时重新生成
+     */
+    private int[] sortedIds;
+
+    /**
+     * 不重复的行数，与 sortedIds 同时生成
+     */
+    private int rowCount;
+
+    private EntrySet entrySet;
+
+    public CellErrorStore() {
+        this(0);
+    }
+
+    /**
+     * @param spillThreshold    内存中最多保存的错误信息数，小于等于0时不写入临时文件
+     */
+    public CellErrorStore(int spillThreshold) {
+        this.spillThreshold = spillThreshold;
+    }
+
+    /**
+     * 新增一条错误信息，保存的是调用时的内容，之后对 errorInfo 的修改不会生效
+     */
+    public synchronized void add(CellErrorInfo errorInfo) {
+        if (spillThreshold > 0 && size - spilledSize >= spillThreshold) {
+            spill();
+        }
+        ensureCapacity();
+        int i = size - spilledSize;
+        rowIndexes[size] = errorInfo.getRowIndex();
+        columnIndexes[i] = errorInfo.getColumnIndex() == null ? NULL_ID : errorInfo.getColumnIndex();
+        fieldNameIds[i] = nameId(errorInfo.getFieldName());
+        headNameIds[i] = nameId(errorInfo.getHeadName());
+        errorMsgsIds[i] = errorMsgsId(errorInfo.getErrorMsgs());
+        size++;
+        sortedIds = null;
+    }
+
+    /**
+     * 错误信息总数
+     */
+    public synchronized int errorCount() {
+        return size;
+    }
+
+    /**
+     * 按行索引升序依次访问所有错误信息，不会一次性生成所有 {@link CellErrorInfo}
+     */
+    public synchronized void forEachErrorInfo(Consumer<CellErrorInfo> action) {
+        int[] ids = sortedIds();
+        for (int id : ids) {
+            action.accept(read(id));
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        sortedIds();
+        return rowCount;
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        return key instanceof Integer && lowerBound((Integer) key) >= 0;
+    }
+
+    @Override
+    public synchronized List<CellErrorInfo> get(Object key) {
+        if (!(key instanceof Integer)) {
+            return null;
+        }
+        int from = lowerBound((Integer) key);
+        return from < 0 ? null : readRow(from);
+    }
+
+    @Override
+    public synchronized void clear() {
+        size = 0;
+        spilledSize = 0;
+        sortedIds = null;
+        rowCount = 0;
+        names.clear();
+        nameIdMap.clear();
+        errorMsgsList.clear();
+        errorMsgsIdMap.clear();
+        closeSpillFile();
+    }
+
+    @Override
+    public Set<Entry<Integer, List<CellErrorInfo>>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    /**
+     * 删除临时文件，关闭后存储为空
+     */
+    @Override
+    public void close() {
+        clear();
+    }
+
+    private int nameId(String name) {
+        if (name == null) {
+            return NULL_ID;
+        }
+        Integer id = nameIdMap.get(name);
+        if (id == null) {
+            id = names.size();
+            names.add(name);
+            nameIdMap.put(name, id);
+        }
+        return id;
+    }
+
+    private int errorMsgsId(Collection<String> errorMsgs) {
+        if (errorMsgs == null) {
+            return NULL_ID;
+        }
+        List<String> key = new ArrayList<>(errorMsgs);
+        Integer id = errorMsgsIdMap.get(key);
+        if (id == null) {
+            id = errorMsgsList.size();
+            errorMsgsList.add(key);
+            errorMsgsIdMap.put(key, id);
+        }
+        return id;
+    }
+
+    /**
+     * 找到行索引对应的第一条错误信息在 sortedIds 中的位置
+     * @return      不存在时返回-1
+     */
+    private int lowerBound(int rowIndex) {
+        int[] ids = sortedIds();
+        int low = 0;
+        int high = ids.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (rowIndexes[ids[mid]] < rowIndex) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < ids.length && rowIndexes[ids[low]] == rowIndex ? low : -1;
+    }
+
+    private List<CellErrorInfo> readRow(int from) {
+        int[] ids = sortedIds();
+        int rowIndex = rowIndexes[ids[from]];
+        List<CellErrorInfo> errorInfos = new ArrayList<>();
+        for (int i = from; i < ids.length && rowIndexes[ids[i]] == rowIndex; i++) {
+            errorInfos.add(read(ids[i]));
+        }
+        return Collections.unmodifiableList(errorInfos);
+    }
+
+    private int[] sortedIds() {
+        if (sortedIds != null) {
+            return sortedIds;
+        }
+        // 高32位为行索引、低32位为编号，排序后同一行中保持新增的顺序
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) rowIndexes[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] result = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            result[i] = (int) keys[i];
+            if (i == 0 || rowIndexes[result[i]] != rowIndexes[result[i - 1]]) {
+                count++;
+            }
+        }
+        sortedIds = result;
+        rowCount = count;
+        return result;
+    }
+
+    private CellErrorInfo read(int id) {
+        int columnIndex;
+        int fieldNameId;
+        int headNameId;
+        int errorMsgsId;
+        if (id < spilledSize) {
+            try {
+                spillAccess.seek((long) id * RECORD_BYTES);
+                spillAccess.readFully(recordBuffer);
+            } catch (IOException e) {
+                throw new ExcelAnalysisException("Read error info spill file failed", e);
+            }
+            columnIndex = readInt(recordBuffer, 0);
+            fieldNameId = readInt(recordBuffer, 4);
+            headNameId = readInt(recordBuffer, 8);
+            errorMsgsId = readInt(recordBuffer, 12);
+        } else {
+            int i = id - spilledSize;
+            columnIndex = columnIndexes[i];
+            fieldNameId = fieldNameIds[i];
+            headNameId = headNameIds[i];
+            errorMsgsId = errorMsgsIds[i];
+        }
+        return toErrorInfo(rowIndexes[id], columnIndex, name(fieldNameId), name(headNameId),
+                errorMsgsId == NULL_ID ? null : new ArrayList<>(errorMsgsList.get(errorMsgsId)));
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16
+                | (bytes[offset + 2] & 0xFF) << 8 | (bytes[offset + 3] & 0xFF);
+    }
+
+    private String name(int id) {
+        return id == NULL_ID ? null : names.get(id);
+    }
+
+    private static CellErrorInfo toErrorInfo(int rowIndex, int columnIndex, String fieldName, String headName,
+                                             List<String> errorMsgs) {
+        CellErrorInfo errorInfo;
+        if (columnIndex != NULL_ID) {
+            errorInfo = CellErrorInfo.buildByColumnIndex(rowIndex, columnIndex, errorMsgs);
+        } else if (CharSequenceUtil.isNotBlank(fieldName)) {
+            errorInfo = CellErrorInfo.buildByField(rowIndex, fieldName, errorMsgs);
+        } else {
+            errorInfo = CellErrorInfo.buildByHead(rowIndex, headName, errorMsgs);
+        }
+        return errorInfo.setFieldName(fieldName).setHeadName(headName);
+    }
+
+    /**
+     * 将内存中除行索引外的数据追加到临时文件
+     */
+    private void spill() {
+        int count = size - spilledSize;
+        try {
+            if (spillAccess == null) {
+                spillFile = FileUtil.createTempFile("zeus-excel-error", ".tmp", null, true);
+                spillAccess = new RandomAccessFile(spillFile, "rw");
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(count * RECORD_BYTES);
+            DataOutputStream out = new DataOutputStream(bytes);
+            for (int i = 0; i < count; i++) {
+                out.writeInt(columnIndexes[i]);
+                out.writeInt(fieldNameIds[i]);
+                out.writeInt(headNameIds[i]);
+                out.writeInt(errorMsgsIds[i]);
+            }
+            spillAccess.seek((long) spilledSize * RECORD_BYTES);
+            spillAccess.write(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new ExcelAnalysisException("Write error info spill file failed", e);
+        }
+        spilledSize = size;
+    }
+
+    private void ensureCapacity() {
+        if (size >= rowIndexes.length) {
+            rowIndexes = Arrays.copyOf(rowIndexes, grow(rowIndexes.length));
+        }
+        int i = size - spilledSize;
+        if (i >= columnIndexes.length) {
+            int capacity = grow(columnIndexes.length);
+            columnIndexes = Arrays.copyOf(columnIndexes, capacity);
+            fieldNameIds = Arrays.copyOf(fieldNameIds, capacity);
+            headNameIds = Arrays.copyOf(headNameIds, capacity);
+            errorMsgsIds = Arrays.copyOf(errorMsgsIds, capacity);
+        }
+    }
+
+    private static int grow(int capacity) {
+        return capacity + (capacity >> 1) + 1;
+    }
+
+    private void closeSpillFile() {
+        IoUtil.close(spillAccess);
+        spillAccess = null;
+        if (spillFile != null) {
+            FileUtil.del(spillFile);
+            spillFile = null;
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Entry<Integer, List<CellErrorInfo>>> {
+
+        @Override
+        public int size() {
+            return CellErrorStore.this.size();
+        }
+
+        @Override
+        public Iterator<Entry<Integer, List<CellErrorInfo>>> iterator() {
+            return new Iterator<Entry<Integer, List<CellErrorInfo>>>() {
+
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    synchronized (CellErrorStore.this) {
+                        return next < sortedIds().length;
+                    }
+                }
+
+                @Override
+                public Entry<Integer, List<CellErrorInfo>> next() {
+                    synchronized (CellErrorStore.this) {
+                        int[] ids = sortedIds();
+                        if (next >= ids.length) {
+                            throw new NoSuchElementException();
+                        }
+                        List<CellErrorInfo> errorInfos = readRow(next);
+                        next += errorInfos.size();
+                        return new SimpleImmutableEntry<>(errorInfos.get(0).getRowIndex(), errorInfos);
+                    }
+                }
+            };
+        }
+    }
+
+}
@@ -0,0 +1,163 @@
+package com.jz.zeus.excel.read.helper;
+
+import com.alibaba.excel.converters.Converter;
+import com.alibaba.excel.converters.ConverterKeyBuild;
+import com.alibaba.excel.converters.bigdecimal.BigDecimalNumberConverter;
+import com.alibaba.excel.converters.booleanconverter.BooleanBooleanConverter;
+import com.alibaba.excel.converters.date.DateNumberConverter;
+import com.alibaba.excel.converters.integer.IntegerNumberConverter;
+import com.alibaba.excel.converters.longconverter.LongNumberConverter;
+import com.alibaba.excel.converters.string.StringStringConverter;
+import com.alibaba.excel.enums.CellDataTypeEnum;
+import com.alibaba.excel.exception.ExcelDataConvertException;
+import com.alibaba.excel.metadata.CellData;
+import com.alibaba.excel.metadata.GlobalConfiguration;
+import com.alibaba.excel.metadata.Head;
+import com.alibaba.excel.metadata.property.ExcelContentProperty;
+import com.alibaba.excel.util.ConverterUtils;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Map;
+
+/**
+ * sheet 中一列与表头类字段的绑定信息，由 {@link ModelBinder#bind} 生成
+ * @Author JZ
+ * @Date 2021/7/5 10:40
+ */
+@Getter
+public class ColumnBinding {
+
+    private final int columnIndex;
+
+    private final Head head;
+
+    private final ExcelContentProperty contentProperty;
+
+    /**
+     * 字段赋值的 MethodHandle，类型为 (Object, Object)void
+     */
+    private final MethodHandle setter;
+
+    /**
+     * 字段类型
+     */
+    @Getter(AccessLevel.NONE)
+    private final Class<?> fieldType;
+
+    /**
+     * 缓存的转换器对应的单元格类型，为null时还未解析转换器
+     */
+    @Getter(AccessLevel.NONE)
+    private CellDataTypeEnum resolvedCellDataType;
+
+    /**
+     * 该列第一个非空单元格类型对应的转换器，为null时使用 {@link ConverterUtils} 转换
+     */
+    @Getter(AccessLevel.NONE)
+    private Converter<?> resolvedConverter;
+
+    @Getter(AccessLevel.NONE)
+    private FastPath fastPath;
+
+    ColumnBinding(int columnIndex, Head head, ExcelContentProperty contentProperty, MethodHandle setter) {
+        this.columnIndex = columnIndex;
+        this.head = head;
+        this.contentProperty = contentProperty;
+        this.setter = setter;
+        this.fieldType = contentProperty.getField().getType();
+    }
+
+    /**
+     * 将单元格数据转换为字段类型，转换器根据该列第一个非空单元格的类型解析一次并缓存，
+     * 常用的内置转换器直接读取单元格的值，单元格类型与缓存的类型不一致时使用 {@link ConverterUtils} 转换
+     */
+    public Object convert(CellData cellData, Map<String, Converter> converterMap, GlobalConfiguration globalConfiguration,
+                          Integer rowIndex) {
+        if (resolvedCellDataType == null) {
+            resolveConverter(cellData.getType(), converterMap);
+        }
+        if (resolvedConverter == null || resolvedCellDataType != cellData.getType()) {
+            return ConverterUtils.convertToJavaObject(cellData, contentProperty.getField(), contentProperty,
+                    converterMap, globalConfiguration, rowIndex, columnIndex);
+        }
+        try {
+            switch (fastPath) {
+                case STRING:
+                    return cellData.getStringValue();
+                case INTEGER:
+                    return cellData.getNumberValue().intValue();
+                case LONG:
+                    return cellData.getNumberValue().longValue();
+                case BIG_DECIMAL:
+                    return cellData.getNumberValue();
+                case BOOLEAN:
+                    return cellData.getBooleanValue();
+                case DATE:
+                    return DateUtil.getJavaDate(cellData.getNumberValue().doubleValue(),
+                            globalConfiguration.getUse1904windowing(), null);
+                default:
+                    return resolvedConverter.convertToJavaData(cellData, contentProperty, globalConfiguration);
+            }
+        } catch (Exception e) {
+            throw new ExcelDataConvertException(rowIndex, columnIndex, cellData, contentProperty,
+                    "Convert data " + cellData + " to " + fieldType + " error ", e);
+        }
+    }
+
+    private void resolveConverter(CellDataTypeEnum cellDataType, Map<String, Converter> converterMap) {
+        resolvedCellDataType = cellDataType;
+        // CellData 类型的字段需要包装转换结果，交由 ConverterUtils 处理
+        if (CellData.class == fieldType) {
+            return;
+        }
+        Converter<?> converter = contentProperty.getConverter();
+        if (converter == null) {
+            converter = converterMap.get(ConverterKeyBuild.buildKey(fieldType, cellDataType));
+        }
+        resolvedConverter = converter;
+        fastPath = converter == null ? FastPath.NONE : FastPath.of(converter, cellDataType, contentProperty);
+    }
+
+    /**
+     * 可直接读取单元格值的内置转换器，转换结果与转换器一致
+     */
+    private enum FastPath {
+
+        STRING, INTEGER, LONG, BIG_DECIMAL, BOOLEAN, DATE, NONE;
+
+        static FastPath of(Converter<?> converter, CellDataTypeEnum cellDataType, ExcelContentProperty contentProperty) {
+            // 字段上指定的转换器不区分单元格类型，类型不一致时需要由转换器自行处理
+            if (converter.supportExcelTypeKey() != cellDataType) {
+                return NONE;
+            }
+            Class<?> converterClass = converter.getClass();
+            if (StringStringConverter.class == converterClass) {
+                return STRING;
+            }
+            if (IntegerNumberConverter.class == converterClass) {
+                return INTEGER;
+            }
+            if (LongNumberConverter.class == converterClass) {
+                return LONG;
+            }
+            if (BigDecimalNumberConverter.class == converterClass) {
+                return BIG_DECIMAL;
+            }
+            if (BooleanBooleanConverter.class == converterClass) {
+                return BOOLEAN;
+            }
+            if (DateNumberConverter.class == converterClass && contentProperty.getDateTimeFormatProperty() == null) {
+                return DATE;
+            }
+            return NONE;
+        }
+    }
+
+    public void setValue(Object model, Object value) throws Throwable {
+        setter.invokeExact(model, value);
+    }
+
+}
@@ -0,0 +1,202 @@
+package com.jz.zeus.excel.read.helper;
+
+import cn.hutool.core.text.CharSequenceUtil;
+import com.jz.zeus.excel.CellErrorInfo;
+import com.jz.zeus.excel.ColumnErrorSummary;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 读取时允许的错误上限，超过任一上限即视为超出预算，监听器会终止读取。
+ * 同时按列汇总错误，只保留每列出现次数最多的错误信息。每个实例只能由一个监听器使用，每个 sheet 重新统计，统计方法可在多个线程中调用
+ * @Author JZ
+ * @Date 2021/7/19 10:32
+ */
+public class ErrorBudget {
+
+    /**
+     * 最大错误数，为null时不限制
+     */
+    private Integer maxErrorCount;
+
+    /**
+     * 最大错误行占比，为null时不限制
+     */
+    private Double maxErrorRate;
+
+    /**
+     * 读取的行数达到该值后才开始检查错误行占比
+     */
+    private int minRowsForRate;
+
+    /**
+     * 每列最大错误数，为null时不限制
+     */
+    private Integer maxColumnErrorCount;
+
+    @Getter
+    private int rowCount;
+
+    @Getter
+    private int errorCount;
+
+    /**
+     * 存在错误的行
+     */
+    private final BitSet errorRows = new BitSet();
+
+    @Getter
+    private int errorRowCount;
+
+    @Getter
+    private volatile boolean exceeded;
+
+    /**
+     * key 列标识、value 该列的错误统计
+     */
+    private final Map<String, ColumnErrorCounter> columnErrorCounterMap = new LinkedHashMap<>();
+
+    /**
+     * 设置最大错误数
+     */
+    public ErrorBudget maxErrorCount(int maxErrorCount) {
+        this.maxErrorCount = maxErrorCount;
+        return this;
+    }
+
+    /**
+     * 设置最大错误行占比
+     * @param maxErrorRate      错误行数与已读取行数的比例，0到1之间
+     * @param minRows           读取的行数达到该值后才开始检查
+     */
+    public ErrorBudget maxErrorRate(double maxErrorRate, int minRows) {
+        this.maxErrorRate = maxErrorRate;
+        this.minRowsForRate = minRows;
+        return this;
+    }
+
+    /**
+     * 设置每列最大错误数
+     */
+    public ErrorBudget maxColumnErrorCount(int maxColumnErrorCount) {
+        this.maxColumnErrorCount = maxColumnErrorCount;
+        return this;
+    }
+
+    /**
+     * 记录读取了一行数据
+     */
+    public synchronized void recordRow() {
+        rowCount++;
+        checkRate();
+    }
+
+    /**
+     * 记录一条错误信息
+     */
+    public synchronized void recordError(CellErrorInfo errorInfo) {
+        errorCount++;
+        if (!errorRows.get(errorInfo.getRowIndex())) {
+            errorRows.set(errorInfo.getRowIndex());
+            errorRowCount++;
+        }
+        ColumnErrorCounter counter = columnErrorCounterMap.computeIfAbsent(columnKey(errorInfo),
+                k -> new ColumnErrorCounter(errorInfo));
+        counter.record(errorInfo);
+        if ((maxErrorCount != null && errorCount > maxErrorCount)
+                || (maxColumnErrorCount != null && counter.errorCount > maxColumnErrorCount)) {
+            exceeded = true;
+        }
+        checkRate();
+    }
+
+    /**
+     * 每列出现次数最多的错误信息，按列第一次出现错误的顺序排列
+     */
+    public synchronized List<ColumnErrorSummary> getColumnErrorSummaries() {
+        List<ColumnErrorSummary> summaries = new ArrayList<>(columnErrorCounterMap.size());
+        for (ColumnErrorCounter counter : columnErrorCounterMap.values()) {
+            summaries.add(counter.toSummary());
+        }
+        return summaries;
+    }
+
+    /**
+     * 开始读取新的 sheet 时清空统计
+     */
+    public synchronized void reset() {
+        rowCount = 0;
+        errorCount = 0;
+        errorRows.clear();
+        errorRowCount = 0;
+        exceeded = false;
+        columnErrorCounterMap.clear();
+    }
+
+    private void checkRate() {
+        if (maxErrorRate != null && rowCount > 0 && rowCount >= minRowsForRate
+                && (double) errorRowCount / rowCount > maxErrorRate) {
+            exceeded = true;
+        }
+    }
+
+    private static String columnKey(CellErrorInfo errorInfo) {
+        if (CharSequenceUtil.isNotBlank(errorInfo.getFieldName())) {
+            return "field:" + errorInfo.getFieldName();
+        }
+        if (errorInfo.getColumnIndex() != null) {
+            return "column:" + errorInfo.getColumnIndex();
+        }
+        return "head:" + errorInfo.getHeadName();
+    }
+
+    private static class ColumnErrorCounter {
+
+        private final CellErrorInfo firstErrorInfo;
+
+        private int errorCount;
+
+        private final Map<String, Integer> errorMsgCountMap = new HashMap<>();
+
+        private String dominantErrorMsg;
+
+        private int dominantErrorCount;
+
+        ColumnErrorCounter(CellErrorInfo firstErrorInfo) {
+            this.firstErrorInfo = firstErrorInfo;
+        }
+
+        void record(CellErrorInfo errorInfo) {
+            errorCount++;
+            if (errorInfo.getErrorMsgs() == null) {
+                return;
+            }
+            for (String errorMsg : errorInfo.getErrorMsgs()) {
+                int count = errorMsgCountMap.merge(errorMsg, 1, Integer::sum);
+                if (count > dominantErrorCount) {
+                    dominantErrorCount = count;
+                    dominantErrorMsg = errorMsg;
+                }
+            }
+        }
+
+        ColumnErrorSummary toSummary() {
+            ColumnErrorSummary summary = new ColumnErrorSummary();
+            summary.setColumnIndex(firstErrorInfo.getColumnIndex());
+            summary.setFieldName(firstErrorInfo.getFieldName());
+            summary.setHeadName(firstErrorInfo.getHeadName());
+            summary.setFirstRowIndex(firstErrorInfo.getRowIndex());
+            summary.setErrorCount(errorCount);
+            summary.setDominantErrorMsg(dominantErrorMsg);
+            summary.setDominantErrorCount(dominantErrorCount);
+            return summary;
+        }
+    }
+
+}
@@ -0,0 +1,197 @@
+package com.jz.zeus.excel.read.helper;
+
+import java.util.*;
+
+/**
+ * 扩展列数据的 Map 视图，同一 sheet 中所有行共享不可变的 {@link Keys}，每行只保存一个值数组。
+ * 迭代顺序与扩展列顺序一致，可修改已存在的扩展列的值，不支持新增或删除扩展列
+ * @Author JZ
+ * @Date 2021/7/13 14:08
+ */
+public class ExtendColumnMap extends AbstractMap<String, String> {
+
+    private final Keys keys;
+
+    private final String[] values;
+
+    private EntrySet entrySet;
+
+    public ExtendColumnMap(Keys keys) {
+        this.keys = keys;
+        this.values = new String[keys.names.length];
+    }
+
+    /**
+     * 设置扩展列的值
+     * @param columnIndex       列索引
+     */
+    public void setColumnValue(int columnIndex, String value) {
+        values[keys.columnSlots[columnIndex - keys.beginColumnIndex]] = value;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return keys.slotMap.containsKey(key);
+    }
+
+    @Override
+    public String get(Object key) {
+        Integer slot = keys.slotMap.get(key);
+        return slot == null ? null : values[slot];
+    }
+
+    @Override
+    public String put(String key, String value) {
+        Integer slot = keys.slotMap.get(key);
+        if (slot == null) {
+            throw new UnsupportedOperationException("Extend column not exist: " + key);
+        }
+        String oldValue = values[slot];
+        values[slot] = value;
+        return oldValue;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private class EntrySet extends AbstractSet<Entry<String, String>> {
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @Override
+        public Iterator<Entry<String, String>> iterator() {
+            return new Iterator<Entry<String, String>>() {
+
+                private int slot;
+
+                @Override
+                public boolean hasNext() {
+                    return slot < values.length;
+                }
+
+                @Override
+                public Entry<String, String> next() {
+                    if (slot >= values.length) {
+                        throw new NoSuchElementException();
+                    }
+                    return new ValueEntry(slot++);
+                }
+            };
+        }
+    }
+
+    private class ValueEntry implements Entry<String, String> {
+
+        private final int slot;
+
+        ValueEntry(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public String getKey() {
+            return keys.names[slot];
+        }
+
+        @Override
+        public String getValue() {
+            return values[slot];
+        }
+
+        @Override
+        public String setValue(String value) {
+            String oldValue = values[slot];
+            values[slot] = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            return Objects.equals(getKey(), entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /**
+     * sheet 中扩展列的表头索引，表头名称重复时共用同一个位置，后面列的值覆盖前面列的值
+     */
+    public static class Keys {
+
+        private final int beginColumnIndex;
+
+        /**
+         * 去重后的表头名称，按首次出现的顺序排列
+         */
+        private final String[] names;
+
+        /**
+         * key 表头名称、value 在 names 中的位置
+         */
+        private final Map<String, Integer> slotMap;
+
+        /**
+         * 下标为列索引减去起始列索引，值为在 names 中的位置
+         */
+        private final int[] columnSlots;
+
+        /**
+         * @param heads                 key 列索引、value 表头名称
+         * @param beginColumnIndex      扩展列起始索引（包含）
+         * @param endColumnIndex        扩展列结束索引（包含）
+         */
+        public Keys(Map<Integer, String> heads, int beginColumnIndex, int endColumnIndex) {
+            this.beginColumnIndex = beginColumnIndex;
+            this.columnSlots = new int[Math.max(endColumnIndex - beginColumnIndex + 1, 0)];
+            List<String> nameList = new ArrayList<>(columnSlots.length);
+            Map<String, Integer> slots = new HashMap<>(columnSlots.length * 4 / 3 + 1);
+            for (int i = 0; i < columnSlots.length; i++) {
+                String name = heads.get(beginColumnIndex + i);
+                Integer slot = slots.get(name);
+                if (slot == null) {
+                    slot = nameList.size();
+                    slots.put(name, slot);
+                    nameList.add(name);
+                }
+                columnSlots[i] = slot;
+            }
+            this.names = nameList.toArray(new String[0]);
+            this.slotMap = Collections.unmodifiableMap(slots);
+        }
+
+        public int getBeginColumnIndex() {
+            return beginColumnIndex;
+        }
+
+        public int getEndColumnIndex() {
+            return beginColumnIndex + columnSlots.length - 1;
+        }
+
+    }
+
+}
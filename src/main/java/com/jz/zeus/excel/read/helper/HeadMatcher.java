@@ -0,0 +1,137 @@
+package com.jz.zeus.excel.read.helper;
+
+import com.alibaba.excel.metadata.Head;
+import com.alibaba.excel.util.StringUtils;
+import org.hibernate.validator.internal.util.ConcurrentReferenceHashMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 表头名称与 sheet 表头行的匹配结果。表头类中的名称索引按表头类缓存，每个 sheet 只遍历一次表头行，
+ * 每个单元格通过一次查找确定匹配的表头
+ * @Author JZ
+ * @Date 2021/7/12 10:26
+ */
+public class HeadMatcher {
+
+    /**
+     * key 表头类、value 表头名称索引，下标0为不去除首尾空格的索引、下标1为去除首尾空格的索引
+     */
+    private static final Map<Class<?>, HeadNameIndex[]> HEAD_NAME_INDEX_CACHE = new ConcurrentReferenceHashMap<>();
+
+    /**
+     * key 表头在表头类中的索引、value 匹配到的列索引，未匹配到的表头不存在
+     */
+    private final Map<Integer, Integer> columnIndexMap;
+
+    private HeadMatcher(Map<Integer, Integer> columnIndexMap) {
+        this.columnIndexMap = columnIndexMap;
+    }
+
+    /**
+     * 根据表头名称匹配列索引，名称完全一致的列优先，其次为忽略大小写后一致的列，名称重复时取列索引最小的列
+     * @param headClazz     表头类，为null时不缓存表头名称索引
+     * @param headMap       key 表头在表头类中的索引、value 表头，只匹配强制按名称匹配的表头
+     * @param headRow       key 列索引、value 表头行中的单元格内容
+     * @param autoTrim      是否去除单元格内容首尾空格
+     */
+    public static HeadMatcher match(Class<?> headClazz, Map<Integer, Head> headMap, Map<Integer, String> headRow,
+                                    boolean autoTrim) {
+        HeadNameIndex headNameIndex = getHeadNameIndex(headClazz, headMap, autoTrim);
+        Map<Integer, Integer> columnIndexMap = new HashMap<>(headNameIndex.headNum * 4 / 3 + 1);
+        Map<Integer, Integer> foldedColumnIndexMap = new HashMap<>(headNameIndex.headNum * 4 / 3 + 1);
+        for (Map.Entry<Integer, String> entry : headRow.entrySet()) {
+            String name = normalize(entry.getValue(), autoTrim);
+            if (StringUtils.isEmpty(name)) {
+                continue;
+            }
+            putMinIndex(columnIndexMap, headNameIndex.nameIndex.get(name), entry.getKey());
+            putMinIndex(foldedColumnIndexMap, headNameIndex.foldedNameIndex.get(name.toLowerCase(Locale.ROOT)),
+                    entry.getKey());
+        }
+        foldedColumnIndexMap.forEach(columnIndexMap::putIfAbsent);
+        return new HeadMatcher(columnIndexMap);
+    }
+
+    /**
+     * 获取表头匹配到的列索引
+     * @param headIndex     表头在表头类中的索引
+     * @return              未匹配到时为null
+     */
+    public Integer getColumnIndex(Integer headIndex) {
+        return columnIndexMap.get(headIndex);
+    }
+
+    private static HeadNameIndex getHeadNameIndex(Class<?> headClazz, Map<Integer, Head> headMap, boolean autoTrim) {
+        if (headClazz == null) {
+            return new HeadNameIndex(headMap, autoTrim);
+        }
+        int trimIndex = autoTrim ? 1 : 0;
+        HeadNameIndex[] headNameIndexes = HEAD_NAME_INDEX_CACHE.computeIfAbsent(headClazz, k -> new HeadNameIndex[2]);
+        HeadNameIndex headNameIndex = headNameIndexes[trimIndex];
+        if (headNameIndex == null) {
+            headNameIndex = new HeadNameIndex(headMap, autoTrim);
+            headNameIndexes[trimIndex] = headNameIndex;
+        }
+        return headNameIndex;
+    }
+
+    private static String normalize(String name, boolean autoTrim) {
+        return name != null && autoTrim ? name.trim() : name;
+    }
+
+    private static void putMinIndex(Map<Integer, Integer> columnIndexMap, List<Integer> headIndexes, Integer columnIndex) {
+        if (headIndexes == null) {
+            return;
+        }
+        for (Integer headIndex : headIndexes) {
+            Integer existIndex = columnIndexMap.get(headIndex);
+            if (existIndex == null || columnIndex < existIndex) {
+                columnIndexMap.put(headIndex, columnIndex);
+            }
+        }
+    }
+
+    /**
+     * 表头类中强制按名称匹配的表头的名称索引，只与表头类及是否去除首尾空格有关，创建后不再修改
+     */
+    private static class HeadNameIndex {
+
+        /**
+         * key 表头名称、value 该名称对应的表头在表头类中的索引
+         */
+        private final Map<String, List<Integer>> nameIndex = new HashMap<>();
+
+        /**
+         * key 转为小写的表头名称、value 该名称对应的表头在表头类中的索引
+         */
+        private final Map<String, List<Integer>> foldedNameIndex = new HashMap<>();
+
+        private final int headNum;
+
+        HeadNameIndex(Map<Integer, Head> headMap, boolean autoTrim) {
+            int headNum = 0;
+            for (Map.Entry<Integer, Head> entry : headMap.entrySet()) {
+                Head head = entry.getValue();
+                if (head.getForceIndex() || !head.getForceName()) {
+                    continue;
+                }
+                List<String> headNameList = head.getHeadNameList();
+                String headName = normalize(headNameList.get(headNameList.size() - 1), autoTrim);
+                if (StringUtils.isEmpty(headName)) {
+                    continue;
+                }
+                nameIndex.computeIfAbsent(headName, k -> new ArrayList<>(1)).add(entry.getKey());
+                foldedNameIndex.computeIfAbsent(headName.toLowerCase(Locale.ROOT), k -> new ArrayList<>(1))
+                        .add(entry.getKey());
+                headNum++;
+            }
+            this.headNum = headNum;
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.jz.zeus.excel.read.helper;
+
+import cn.hutool.core.text.CharSequenceUtil;
+import cn.hutool.core.util.ReflectUtil;
+import com.alibaba.excel.exception.ExcelAnalysisException;
+import com.alibaba.excel.metadata.Head;
+import com.alibaba.excel.metadata.property.ExcelContentProperty;
+import lombok.Getter;
+import org.hibernate.validator.internal.util.ConcurrentReferenceHashMap;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 表头类的数据绑定器，每个 class 只生成一次并缓存，
+ * 通过 MethodHandle 将转换后的单元格数据直接写入对象，避免逐行构建 Map 再通过 BeanMap 拷贝
+ * @Author JZ
+ * @Date 2021/7/5 10:12
+ */
+public class ModelBinder {
+
+    private static final Map<Class<?>, ModelBinder> MODEL_BINDER_CACHE = new ConcurrentReferenceHashMap<>();
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    @Getter
+    private final Class<?> modelClass;
+
+    /**
+     * 无参构造器，class 无法实例化时为null
+     */
+    private final MethodHandle constructor;
+
+    /**
+     * key 字段、value 字段赋值的 MethodHandle
+     */
+    private final Map<Field, MethodHandle> setterCache = new ConcurrentHashMap<>();
+
+    private ModelBinder(Class<?> modelClass) {
+        this.modelClass = modelClass;
+        this.constructor = findConstructor(modelClass);
+    }
+
+    public static ModelBinder of(Class<?> modelClass) {
+        return MODEL_BINDER_CACHE.computeIfAbsent(modelClass, ModelBinder::new);
+    }
+
+    public Object newInstance() throws Throwable {
+        if (constructor == null) {
+            throw new InstantiationException(modelClass.getName());
+        }
+        return (Object) constructor.invokeExact();
+    }
+
+    /**
+     * 根据当前 sheet 的表头配置生成按列索引排列的绑定信息
+     * @param headMap               key 列索引、value 表头
+     * @param contentPropertyMap    key 列索引、value 列属性
+     * @param includeFieldNames     需要绑定的字段名，为null时绑定所有字段
+     * @return                      按列索引升序排列，无法赋值的字段会被忽略
+     */
+    public ColumnBinding[] bind(Map<Integer, Head> headMap, Map<Integer, ExcelContentProperty> contentPropertyMap,
+                                Set<String> includeFieldNames) {
+        List<ColumnBinding> bindings = new ArrayList<>(headMap.size());
+        for (Map.Entry<Integer, Head> entry : new TreeMap<>(headMap).entrySet()) {
+            ExcelContentProperty contentProperty = contentPropertyMap.get(entry.getKey());
+            if (contentProperty == null || contentProperty.getField() == null) {
+                continue;
+            }
+            if (includeFieldNames != null && !includeFieldNames.contains(contentProperty.getField().getName())) {
+                continue;
+            }
+            MethodHandle setter = getSetter(contentProperty.getField());
+            if (setter == null) {
+                continue;
+            }
+            bindings.add(new ColumnBinding(entry.getKey(), entry.getValue(), contentProperty, setter));
+        }
+        return bindings.toArray(new ColumnBinding[0]);
+    }
+
+    /**
+     * 获取字段赋值的 MethodHandle，优先使用 setter 方法，不存在或无法访问时直接对字段赋值
+     * @return      类型为 (Object, Object)void，静态字段及没有 setter 方法的 final 字段返回null
+     * @throws ExcelAnalysisException   字段可以赋值但无法访问时
+     */
+    public MethodHandle getSetter(Field field) {
+        MethodHandle setter = setterCache.get(field);
+        if (setter != null) {
+            return setter;
+        }
+        setter = findSetter(field);
+        if (setter != null) {
+            setterCache.put(field, setter);
+        }
+        return setter;
+    }
+
+    private MethodHandle findSetter(Field field) {
+        if (Modifier.isStatic(field.getModifiers())) {
+            return null;
+        }
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        String setterName = "set" + CharSequenceUtil.upperFirst(field.getName());
+        Method method = ReflectUtil.getMethod(modelClass, setterName, field.getType());
+        Exception failure = null;
+        if (method != null && Modifier.isPublic(method.getModifiers()) && !Modifier.isStatic(method.getModifiers())) {
+            try {
+                // 表头类不是 public 时其 public 方法也无法直接访问
+                method.setAccessible(true);
+                return lookup.unreflect(method).asType(SETTER_TYPE);
+            } catch (IllegalAccessException | SecurityException e) {
+                failure = e;
+            }
+        }
+        if (Modifier.isFinal(field.getModifiers())) {
+            return null;
+        }
+        try {
+            field.setAccessible(true);
+            return lookup.unreflectSetter(field).asType(SETTER_TYPE);
+        } catch (IllegalAccessException | SecurityException e) {
+            ExcelAnalysisException exception = new ExcelAnalysisException(CharSequenceUtil.format(
+                    "Can not access setter or field '{}' of {}", field.getName(), modelClass.getName()), e);
+            if (failure != null) {
+                exception.addSuppressed(failure);
+            }
+            throw exception;
+        }
+    }
+
+    private static MethodHandle findConstructor(Class<?> modelClass) {
+        try {
+            return MethodHandles.lookup().unreflectConstructor(ReflectUtil.getConstructor(modelClass))
+                    .asType(CONSTRUCTOR_TYPE);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,252 @@
+package com.jz.zeus.excel.read.helper;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * 批量处理的数据缓冲区，行索引与数据分别保存在数组中，按行索引升序排列，
+ * 行按顺序读取时新增数据只需追加到数组末尾，查找使用二分查找。
+ * {@link #clear()} 后数组保留，可在多个批次间复用
+ * @Author JZ
+ * @Date 2021/7/14 9:52
+ */
+public class RowBatch<T> extends AbstractMap<Integer, T> {
+
+    private int[] rowIndexes;
+
+    private Object[] rows;
+
+    private int size;
+
+    private EntrySet entrySet;
+
+    public RowBatch(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        this.rowIndexes = new int[capacity];
+        this.rows = new Object[capacity];
+    }
+
+    /**
+     * 获取第 i 条数据的行索引
+     */
+    public int getRowIndex(int i) {
+        checkIndex(i);
+        return rowIndexes[i];
+    }
+
+    /**
+     * 获取第 i 条数据
+     */
+    public T getRow(int i) {
+        checkIndex(i);
+        return row(i);
+    }
+
+    /**
+     * 数组中只保存 T 类型的数据，不检查索引
+     */
+    @SuppressWarnings("unchecked")
+    private T row(int i) {
+        return (T) rows[i];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && indexOf((Integer) key) >= 0;
+    }
+
+    @Override
+    public T get(Object key) {
+        if (!(key instanceof Integer)) {
+            return null;
+        }
+        int i = indexOf((Integer) key);
+        return i >= 0 ? row(i) : null;
+    }
+
+    @Override
+    public T put(Integer key, T value) {
+        int rowIndex = key;
+        if (size == 0 || rowIndexes[size - 1] < rowIndex) {
+            ensureCapacity();
+            rowIndexes[size] = rowIndex;
+            rows[size++] = value;
+            return null;
+        }
+        int i = indexOf(rowIndex);
+        if (i >= 0) {
+            T oldValue = row(i);
+            rows[i] = value;
+            return oldValue;
+        }
+        i = -(i + 1);
+        ensureCapacity();
+        System.arraycopy(rowIndexes, i, rowIndexes, i + 1, size - i);
+        System.arraycopy(rows, i, rows, i + 1, size - i);
+        rowIndexes[i] = rowIndex;
+        rows[i] = value;
+        size++;
+        return null;
+    }
+
+    @Override
+    public T remove(Object key) {
+        if (!(key instanceof Integer)) {
+            return null;
+        }
+        int i = indexOf((Integer) key);
+        if (i < 0) {
+            return null;
+        }
+        T oldValue = row(i);
+        removeAt(i);
+        return oldValue;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(rows, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super Integer, ? super T> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(rowIndexes[i], row(i));
+        }
+    }
+
+    @Override
+    public Set<Entry<Integer, T>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private int indexOf(int rowIndex) {
+        return Arrays.binarySearch(rowIndexes, 0, size, rowIndex);
+    }
+
+    private void removeAt(int i) {
+        int moved = size - i - 1;
+        if (moved > 0) {
+            System.arraycopy(rowIndexes, i + 1, rowIndexes, i, moved);
+            System.arraycopy(rows, i + 1, rows, i, moved);
+        }
+        rows[--size] = null;
+    }
+
+    private void ensureCapacity() {
+        if (size < rowIndexes.length) {
+            return;
+        }
+        int capacity = rowIndexes.length + (rowIndexes.length >> 1) + 1;
+        rowIndexes = Arrays.copyOf(rowIndexes, capacity);
+        rows = Arrays.copyOf(rows, capacity);
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Entry<Integer, T>> {
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            RowBatch.this.clear();
+        }
+
+        @Override
+        public Iterator<Entry<Integer, T>> iterator() {
+            return new Iterator<Entry<Integer, T>>() {
+
+                private int next;
+
+                private int last = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return next < size;
+                }
+
+                @Override
+                public Entry<Integer, T> next() {
+                    if (next >= size) {
+                        throw new NoSuchElementException();
+                    }
+                    last = next++;
+                    return new RowEntry(last);
+                }
+
+                @Override
+                public void remove() {
+                    if (last < 0) {
+                        throw new IllegalStateException();
+                    }
+                    removeAt(last);
+                    next = last;
+                    last = -1;
+                }
+            };
+        }
+    }
+
+    private class RowEntry implements Entry<Integer, T> {
+
+        private final int i;
+
+        RowEntry(int i) {
+            this.i = i;
+        }
+
+        @Override
+        public Integer getKey() {
+            return rowIndexes[i];
+        }
+
+        @Override
+        public T getValue() {
+            return row(i);
+        }
+
+        @Override
+        public T setValue(T value) {
+            T oldValue = row(i);
+            rows[i] = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            return getKey().equals(entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return rowIndexes[i] ^ Objects.hashCode(rows[i]);
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.jz.zeus.excel.read.helper;
+
+import com.alibaba.excel.cache.MapCache;
+import com.alibaba.excel.cache.ReadCache;
+import com.alibaba.excel.context.AnalysisContext;
+
+/**
+ * 对已加载完毕的 {@link ReadCache} 的只读视图，用于多个 ExcelReader 共享同一份 sharedStrings，
+ * 写入及销毁操作均被忽略，由原 ReadCache 所属的 ExcelReader 负责销毁
+ * @Author JZ
+ * @Date 2021/7/8 11:05
+ */
+public class SharedReadCache implements ReadCache {
+
+    private final ReadCache readCache;
+
+    /**
+     * {@link MapCache} 加载完毕后可并发读取，其他实现（如 Ehcache）在读取时会修改内部状态，需要加锁
+     */
+    private final boolean concurrentReadable;
+
+    public SharedReadCache(ReadCache readCache) {
+        this.readCache = readCache;
+        this.concurrentReadable = readCache instanceof MapCache;
+    }
+
+    @Override
+    public void init(AnalysisContext analysisContext) {}
+
+    @Override
+    public void put(String value) {}
+
+    @Override
+    public String get(Integer key) {
+        if (concurrentReadable) {
+            return readCache.get(key);
+        }
+        synchronized (readCache) {
+            return readCache.get(key);
+        }
+    }
+
+    @Override
+    public void putFinished() {}
+
+    @Override
+    public void destroy() {}
+
+}
@@ -0,0 +1,103 @@
+package com.jz.zeus.excel.read.helper;
+
+import com.alibaba.excel.analysis.v07.handlers.sax.SharedStringsTableHandler;
+import org.xml.sax.*;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.IOException;
+
+/**
+ * 跳过 sharedStrings.xml 解析的 SAXParserFactory，其余 xml 交给默认的 SAXParserFactory 解析。
+ * 并行读取时各 sheet 的 ExcelReader 共享已加载完毕的 {@link SharedReadCache}，
+ * 通过 {@link com.alibaba.excel.read.metadata.ReadWorkbook#setXlsxSAXParserFactoryName(String)} 指定该类，
+ * 以免每个 ExcelReader 创建时都重新解析一遍 sharedStrings.xml
+ * @Author JZ
+ * @Date 2021/7/8 15:20
+ */
+public class SharedStringsSkippingSAXParserFactory extends SAXParserFactory {
+
+    private final SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
+
+    @Override
+    public SAXParser newSAXParser() throws ParserConfigurationException, SAXException {
+        saxParserFactory.setNamespaceAware(isNamespaceAware());
+        saxParserFactory.setValidating(isValidating());
+        return new SharedStringsSkippingSAXParser(saxParserFactory.newSAXParser());
+    }
+
+    @Override
+    public void setFeature(String name, boolean value) throws ParserConfigurationException, SAXNotRecognizedException, SAXNotSupportedException {
+        saxParserFactory.setFeature(name, value);
+    }
+
+    @Override
+    public boolean getFeature(String name) throws ParserConfigurationException, SAXNotRecognizedException, SAXNotSupportedException {
+        return saxParserFactory.getFeature(name);
+    }
+
+    private static class SharedStringsSkippingSAXParser extends SAXParser {
+
+        private final SAXParser saxParser;
+
+        SharedStringsSkippingSAXParser(SAXParser saxParser) {
+            this.saxParser = saxParser;
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public Parser getParser() throws SAXException {
+            return saxParser.getParser();
+        }
+
+        @Override
+        public XMLReader getXMLReader() throws SAXException {
+            return new SharedStringsSkippingXMLReader(saxParser.getXMLReader());
+        }
+
+        @Override
+        public boolean isNamespaceAware() {
+            return saxParser.isNamespaceAware();
+        }
+
+        @Override
+        public boolean isValidating() {
+            return saxParser.isValidating();
+        }
+
+        @Override
+        public void setProperty(String name, Object value) throws SAXNotRecognizedException, SAXNotSupportedException {
+            saxParser.setProperty(name, value);
+        }
+
+        @Override
+        public Object getProperty(String name) throws SAXNotRecognizedException, SAXNotSupportedException {
+            return saxParser.getProperty(name);
+        }
+    }
+
+    private static class SharedStringsSkippingXMLReader extends XMLFilterImpl {
+
+        SharedStringsSkippingXMLReader(XMLReader xmlReader) {
+            super(xmlReader);
+        }
+
+        /**
+         * sharedStrings 的处理器直接返回，其他处理器直接交给被包装的 XMLReader，不经过过滤器转发事件
+         */
+        @Override
+        public void parse(InputSource input) throws SAXException, IOException {
+            ContentHandler contentHandler = getContentHandler();
+            if (contentHandler instanceof SharedStringsTableHandler) {
+                return;
+            }
+            XMLReader xmlReader = getParent();
+            xmlReader.setContentHandler(contentHandler);
+            xmlReader.setErrorHandler(getErrorHandler());
+            xmlReader.parse(input);
+        }
+    }
+
+}
@@ -1,10 +1,11 @@
 package com.jz.zeus.excel.read.listener;
 
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.lang.Assert;
 import cn.hutool.core.text.CharSequenceUtil;
-import cn.hutool.core.util.ReflectUtil;
 import com.alibaba.excel.context.AnalysisContext;
 import com.alibaba.excel.enums.HeadKindEnum;
+import com.alibaba.excel.exception.ExcelAnalysisException;
 import com.alibaba.excel.metadata.Cell;
 import com.alibaba.excel.metadata.CellData;
 import com.alibaba.excel.metadata.CellExtra;
@@ -14,22 +15,43 @@ import com.alibaba.excel.read.metadata.holder.ReadRowHolder;
 import com.alibaba.excel.read.metadata.property.ExcelReadHeadProperty;
 import com.alibaba.excel.util.ConverterUtils;
 import com.jz.zeus.excel.CellErrorInfo;
+import com.jz.zeus.excel.ColumnErrorSummary;
 import com.jz.zeus.excel.FieldInfo;
 import com.jz.zeus.excel.exception.DataConvertException;
 import com.jz.zeus.excel.interfaces.FieldGetter;
+import com.jz.zeus.excel.read.ZeusAnalysisEventProcessor;
+import com.jz.zeus.excel.read.helper.AdaptiveBatchSizer;
+import com.jz.zeus.excel.read.helper.AsyncBatchHandler;
+import com.jz.zeus.excel.read.helper.CellErrorStore;
+import com.jz.zeus.excel.read.helper.ErrorBudget;
+import com.jz.zeus.excel.read.helper.ExtendColumnMap;
+import com.jz.zeus.excel.read.helper.ModelBinder;
+import com.jz.zeus.excel.read.helper.RowBatch;
 import com.jz.zeus.excel.util.ClassUtils;
+import com.jz.zeus.excel.util.ValidatorUtils;
+import com.jz.zeus.excel.validator.BeanValidator;
+import com.jz.zeus.excel.validator.VerifyProgram;
+import com.jz.zeus.excel.validator.VerifyResult;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-import java.lang.reflect.Field;
+import java.lang.invoke.MethodHandle;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 @NoArgsConstructor
 public abstract class ExcelReadListener<T> implements ReadListener<T> {
 
+    /**
+     * 批数据达到该数量时才并行校验
+     */
+    private static final int PARALLEL_VALIDATE_THRESHOLD = 64;
+
     /**
      * 批量处理数据数量
      */
@@ -39,22 +61,22 @@ public abstract class ExcelReadListener<T> implements ReadListener<T> {
      * 终止标志，true 终止Excel读取流程、false Excel读取流程正常执行
      */
     @Setter(AccessLevel.PROTECTED)
-    private boolean terminated;
+    private volatile boolean terminated;
 
     /**
-     * 扩展列起始索引，若没有扩展列则为null
+     * 超出错误预算终止读取前是否已处理缓冲的数据
      */
-    private Integer extendColumnBeginIndex;
+    private boolean errorBudgetHandled;
 
     /**
-     * 扩展列结束索引，若没有扩展列则为null
+     * 当前sheet中扩展列的表头索引，所有行共享，若没有扩展列则为null
      */
-    private Integer extendColumnEndIndex;
+    private ExtendColumnMap.Keys extendColumnKeys;
 
     /**
-     * 扩展列的字段信息
+     * 扩展列字段赋值的 MethodHandle，类型为 (Object, Object)void
      */
-    private Field extendField;
+    private MethodHandle extendColumnSetter;
 
     /**
      * 当前sheet中读取到的表头
@@ -67,22 +89,109 @@ public abstract class ExcelReadListener<T> implements ReadListener<T> {
     private Map<Integer, Head> currentSheetHeadConfig;
 
     /**
-     * Excel 中读取到的数据
+     * Excel 中读取到的数据，按行索引升序排列，同步处理时在批次间复用
      * key 行索引，value 读取到的数据
      */
-    private Map<Integer, T> dataMap;
+    private RowBatch<T> dataMap;
 
     /**
-     * 数据的错误信息
-     * key 为行索引，value 为该行中单元格的错误信息
+     * 当前sheet数据的错误信息，只读视图，修改时抛出 {@link UnsupportedOperationException}，新增错误信息需使用 {@link #addErrorInfo}
+     * key 为行索引，value 为该行中单元格的错误信息。错误信息写入了临时文件时，使用完毕后需调用 {@link #clearErrorInfo()} 删除
      */
     @Getter
-    private Map<Integer, List<CellErrorInfo>> errorInfoMap;
+    private CellErrorStore errorInfoMap;
+
+    /**
+     * 内存中最多保存的错误信息数，超过后写入临时文件，小于等于0时不写入临时文件
+     */
+    @Setter
+    private int errorSpillThreshold;
+
+    /**
+     * 错误预算，超出后终止读取且不再记录单元格错误信息，只统计每列的错误汇总，为null时不限制
+     */
+    @Setter
+    private ErrorBudget errorBudget;
+
+    /**
+     * 批数据的校验程序，为null时不校验
+     */
+    private VerifyProgram<T> verifyProgram;
+
+    /**
+     * 是否同时按字段上的注解校验
+     */
+    private boolean annotationValidate;
+
+    /**
+     * 并行校验批数据的线程池
+     */
+    private ForkJoinPool validatePool;
+
+    /**
+     * 异步处理数据的线程池，为null时在解析线程中同步调用 {@link #dataHandle}
+     */
+    private Executor dataHandleExecutor;
+
+    /**
+     * 异步处理时等待处理的最大批次数，队列满时解析线程阻塞等待
+     */
+    private int dataHandleQueueCapacity;
+
+    private AsyncBatchHandler<RowBatch<T>> asyncBatchHandler;
+
+    /**
+     * 自适应批量大小，为null时使用固定的 batchHandleNum
+     */
+    private AdaptiveBatchSizer batchSizer;
+
+    /**
+     * 当前批次中数据的估算内存，只在自适应批量大小时统计
+     */
+    private long batchBytes;
 
     public ExcelReadListener(int batchHandleNum) {
         this.batchHandleNum = batchHandleNum;
     }
 
+    /**
+     * 开启异步数据处理，批数据放入有界队列后由 dataHandleExecutor 按顺序调用 {@link #dataHandle}，解析线程继续解析。
+     * 此时 {@link #dataHandle} 不在解析线程中执行，处理中抛出的异常会交给 {@link #onException}，
+     * {@link #doAfterAllDataHandle} 在所有数据处理完毕后执行。
+     * 传给 {@link #dataHandle} 的 AnalysisContext 与解析线程共用，解析线程会继续修改其中的当前行及当前 sheet，
+     * 在 {@link #dataHandle} 中读取 readRowHolder()、readSheetHolder() 得到的是解析线程的最新状态，不是该批数据所在的行及 sheet，
+     * 需要按行或 sheet 区分数据时应使用 dataMap 中的行索引，或每个 sheet 使用单独的监听器，或改为同步处理
+     * @param batchHandleNum              批量处理数据数量
+     * @param dataHandleExecutor          处理数据的线程池
+     * @param dataHandleQueueCapacity     等待处理的最大批次数
+     */
+    public ExcelReadListener(int batchHandleNum, Executor dataHandleExecutor, int dataHandleQueueCapacity) {
+        this.batchHandleNum = batchHandleNum;
+        this.dataHandleExecutor = dataHandleExecutor;
+        this.dataHandleQueueCapacity = dataHandleQueueCapacity;
+    }
+
+    /**
+     * 自适应批量大小，每批数据的数量根据 {@link #dataHandle} 的耗时及数据的估算内存在上下限之间调整
+     * @param batchSizer                  自适应批量大小配置，每个监听器需使用单独的实例
+     */
+    public ExcelReadListener(AdaptiveBatchSizer batchSizer) {
+        this.batchSizer = batchSizer;
+        this.batchHandleNum = batchSizer.getBatchSize();
+    }
+
+    /**
+     * 异步处理数据并自适应批量大小
+     * @param batchSizer                  自适应批量大小配置，每个监听器需使用单独的实例
+     * @param dataHandleExecutor          处理数据的线程池
+     * @param dataHandleQueueCapacity     等待处理的最大批次数
+     * @see #ExcelReadListener(int, Executor, int)
+     */
+    public ExcelReadListener(AdaptiveBatchSizer batchSizer, Executor dataHandleExecutor, int dataHandleQueueCapacity) {
+        this(batchSizer.getBatchSize(), dataHandleExecutor, dataHandleQueueCapacity);
+        this.batchSizer = batchSizer;
+    }
+
     /**
      * 对sheet表头进行处理
      * @param headMap
@@ -92,8 +201,10 @@ public abstract class ExcelReadListener<T> implements ReadListener<T> {
 
     /**
      * 对读取到的数据进行处理
-     * @param dataMap                   key 为行索引，value 为 Excel中该行数据
-     * @param analysisContext
+     * @param dataMap                   key 为行索引，value 为 Excel中该行数据，按行索引升序迭代，
+     *                                  同步处理时该 Map 在方法返回后会被清空复用，需要保留数据时应复制
+     * @param analysisContext           异步处理时与解析线程共用，其中的当前行及当前 sheet 可能已是之后解析到的行或 sheet，
+     *                                  见 {@link #ExcelReadListener(int, Executor, int)}
      */
     protected abstract void dataHandle(Map<Integer, T> dataMap, AnalysisContext analysisContext);
 
@@ -115,24 +226,153 @@ public abstract class ExcelReadListener<T> implements ReadListener<T> {
         Integer rowIndex = readRowHolder.getRowIndex();
         setExtendColumnData(data, readRowHolder);
         dataMap.put(rowIndex, data);
+        if (errorBudget != null) {
+            // 逐行合并错误信息，以便超出错误预算时尽早终止读取
+            drainErrorInfos(context);
+            errorBudget.recordRow();
+            if (errorBudget.isExceeded()) {
+                terminated = true;
+                return;
+            }
+        }
+        if (batchSizer != null) {
+            batchBytes += AdaptiveBatchSizer.estimateRowBytes(readRowHolder.getCellMap());
+            if (batchSizer.isMemoryExceeded(batchBytes)) {
+                handleData(context);
+                return;
+            }
+        }
         if (dataMap.size() >= batchHandleNum) {
-            dataHandle(dataMap, context);
-            dataMap.clear();
+            handleData(context);
         }
     }
 
     @Override
     public void doAfterAllAnalysed(AnalysisContext context) {
+        drainErrorInfos(context);
         if (dataMap.size() > 0) {
-            dataHandle(dataMap, context);
-            dataMap.clear();
+            handleData(context);
+        }
+        if (asyncBatchHandler != null) {
+            try {
+                asyncBatchHandler.await();
+            } catch (ExcelAnalysisException e) {
+                onException(e, context);
+                return;
+            }
         }
         doAfterAllDataHandle(context);
     }
 
+    private void handleData(AnalysisContext context) {
+        drainErrorInfos(context);
+        if (batchSizer != null) {
+            batchSizer.recordBytes(dataMap.size(), batchBytes);
+            batchBytes = 0;
+        }
+        if (asyncBatchHandler == null) {
+            handleBatch(dataMap, context);
+            dataMap.clear();
+        } else {
+            asyncBatchHandler.submit(dataMap);
+            dataMap = new RowBatch<>(batchHandleNum);
+        }
+        if (batchSizer != null) {
+            batchHandleNum = batchSizer.getBatchSize();
+        }
+    }
+
+    /**
+     * 开启批数据校验，每批数据在 {@link #dataHandle} 之前使用 {@link ForkJoinPool#commonPool()} 并行校验，
+     * 校验失败的信息按行索引及字段名记录到 errorInfoMap 中
+     * @param beanValidator         校验规则，开启时编译为 {@link VerifyProgram}，之后新增的规则不生效
+     * @param annotationValidate    是否同时按字段上的注解校验
+     */
+    public void enableValidation(BeanValidator<T> beanValidator, boolean annotationValidate) {
+        enableValidation(beanValidator, annotationValidate, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param validatePool          并行校验的线程池
+     * @see #enableValidation(BeanValidator, boolean)
+     */
+    public void enableValidation(BeanValidator<T> beanValidator, boolean annotationValidate, ForkJoinPool validatePool) {
+        Assert.isTrue(beanValidator != null || annotationValidate, "BeanValidator can not be null");
+        Assert.notNull(validatePool, "ValidatePool can not be null");
+        this.verifyProgram = beanValidator == null ? null : beanValidator.compile();
+        this.annotationValidate = annotationValidate;
+        this.validatePool = validatePool;
+    }
+
+    /**
+     * 并行校验一批数据，校验结果按行的顺序记录
+     */
+    private void validate(RowBatch<T> batch) {
+        VerifyResult[] verifyResults = new VerifyResult[batch.size()];
+        IntConsumer validateRow = i -> verifyResults[i] = validate(batch.getRow(i));
+        if (batch.size() < PARALLEL_VALIDATE_THRESHOLD) {
+            IntStream.range(0, batch.size()).forEach(validateRow);
+        } else {
+            validatePool.submit(() -> IntStream.range(0, batch.size()).parallel().forEach(validateRow)).join();
+        }
+        for (int i = 0; i < verifyResults.length; i++) {
+            if (verifyResults[i] == null) {
+                continue;
+            }
+            int rowIndex = batch.getRowIndex(i);
+            verifyResults[i].getErrorInfoMap().forEach((fieldName, errorMsgs) -> {
+                if (CollUtil.isNotEmpty(errorMsgs)) {
+                    addErrorInfo(CellErrorInfo.buildByField(rowIndex, fieldName, errorMsgs));
+                }
+            });
+        }
+    }
+
+    private VerifyResult validate(T data) {
+        if (data == null) {
+            return null;
+        }
+        VerifyResult verifyResult = verifyProgram == null ? null : verifyProgram.doVerify(data);
+        if (verifyResult != null && !verifyResult.hasError()) {
+            // 校验通过时为共享的空结果，不能修改
+            verifyResult = null;
+        }
+        if (annotationValidate) {
+            VerifyResult annotationVerifyResult = ValidatorUtils.validate(data);
+            if (verifyResult == null) {
+                verifyResult = annotationVerifyResult;
+            } else {
+                verifyResult.addVerifyResult(annotationVerifyResult);
+            }
+        }
+        return verifyResult != null && verifyResult.hasError() ? verifyResult : null;
+    }
+
+    private void handleBatch(RowBatch<T> batch, AnalysisContext context) {
+        if (verifyProgram != null || annotationValidate) {
+            validate(batch);
+        }
+        if (batchSizer == null) {
+            dataHandle(batch, context);
+            return;
+        }
+        int rowNum = batch.size();
+        long start = System.nanoTime();
+        dataHandle(batch, context);
+        batchSizer.recordLatency(rowNum, System.nanoTime() - start);
+    }
+
     @Override
     public boolean hasNext(AnalysisContext context) {
-        return !terminated;
+        if (!terminated) {
+            return true;
+        }
+        if (isErrorBudgetExceeded() && !errorBudgetHandled) {
+            // 停止解析后 easyexcel 不再调用 doAfterAllAnalysed，终止前先处理已缓冲的数据并等待异步处理完毕
+            errorBudgetHandled = true;
+            doAfterAllAnalysed(context);
+        }
+        return false;
     }
 
     @Override
@@ -140,41 +380,99 @@ public abstract class ExcelReadListener<T> implements ReadListener<T> {
         if (exception instanceof DataConvertException) {
             List<CellErrorInfo> errorInfos = ((DataConvertException) exception).getCellErrorInfos();
             if (CollUtil.isNotEmpty(errorInfos)) {
-                errorInfoMap.putAll(errorInfos.stream().collect(Collectors.groupingBy(CellErrorInfo::getRowIndex)));
+                errorInfos.forEach(this::addErrorInfo);
             }
         } else {
             throw new RuntimeException(exception);
         }
     }
 
+    /**
+     * 将收集器中的数据转换错误信息合并到 errorInfoMap 中
+     */
+    private void drainErrorInfos(AnalysisContext context) {
+        ZeusAnalysisEventProcessor processor = ZeusAnalysisEventProcessor.of(context);
+        if (processor != null) {
+            processor.getErrorCollector().drainTo(this, this::addErrorInfo);
+        }
+    }
+
     protected void addErrorInfo(int rowIndex, String headName, String... errorMsgs) {
-        List<CellErrorInfo> rowErrorInfoList = errorInfoMap.computeIfAbsent(rowIndex, k -> new ArrayList<>());
-        rowErrorInfoList.add(CellErrorInfo.buildByHead(rowIndex, headName, errorMsgs));
+        addErrorInfo(CellErrorInfo.buildByHead(rowIndex, headName, errorMsgs));
     }
 
     protected <T, R> void addErrorInfo(int rowIndex, FieldGetter<T, R> fieldGetter, String... errorMsgs) {
-        List<CellErrorInfo> rowErrorInfoList = errorInfoMap.computeIfAbsent(rowIndex, k -> new ArrayList<>());
-        rowErrorInfoList.add(CellErrorInfo.buildByField(rowIndex, fieldGetter, errorMsgs));
+        addErrorInfo(CellErrorInfo.buildByField(rowIndex, fieldGetter, errorMsgs));
     }
 
     protected void addErrorInfo(int rowIndex, int columnIndex, String... errorMsgs) {
-        List<CellErrorInfo> rowErrorInfoList = errorInfoMap.computeIfAbsent(rowIndex, k -> new ArrayList<>());
         Head head = currentSheetHeadConfig.get(columnIndex);
         String fieldName = head.getFieldName();
         if (CharSequenceUtil.isNotBlank(fieldName)) {
-            rowErrorInfoList.add(CellErrorInfo.buildByField(rowIndex, fieldName, errorMsgs));
+            addErrorInfo(CellErrorInfo.buildByField(rowIndex, fieldName, errorMsgs));
         } else {
-            rowErrorInfoList.add(CellErrorInfo.buildByColumnIndex(rowIndex, columnIndex, errorMsgs));
+            addErrorInfo(CellErrorInfo.buildByColumnIndex(rowIndex, columnIndex, errorMsgs));
+        }
+    }
+
+    protected void addErrorInfo(CellErrorInfo errorInfo) {
+        if (errorBudget == null) {
+            errorInfoMap.add(errorInfo);
+            return;
+        }
+        if (!errorBudget.isExceeded()) {
+            errorInfoMap.add(errorInfo);
+        }
+        errorBudget.recordError(errorInfo);
+        if (errorBudget.isExceeded()) {
+            terminated = true;
         }
     }
 
+    /**
+     * 清空当前sheet的错误信息并删除错误信息的临时文件，读取下一个sheet时会自动清空上一个sheet的错误信息
+     */
+    public void clearErrorInfo() {
+        if (errorInfoMap != null) {
+            errorInfoMap.close();
+        }
+    }
+
+    /**
+     * 当前sheet是否因超出错误预算而终止读取
+     */
+    public boolean isErrorBudgetExceeded() {
+        return errorBudget != null && errorBudget.isExceeded();
+    }
+
+    /**
+     * 当前sheet每列出现次数最多的错误信息，未设置错误预算时为空
+     */
+    public List<ColumnErrorSummary> getColumnErrorSummaries() {
+        return errorBudget == null ? Collections.emptyList() : errorBudget.getColumnErrorSummaries();
+    }
+
     private void init(Map<Integer, CellData> headMap, AnalysisContext context) {
         terminated = false;
-        extendField = null;
-        extendColumnBeginIndex = null;
-        extendColumnEndIndex = null;
-        errorInfoMap = new HashMap<>();
-        dataMap = new HashMap<>(batchHandleNum);
+        errorBudgetHandled = false;
+        batchBytes = 0;
+        extendColumnKeys = null;
+        extendColumnSetter = null;
+        if (dataMap == null || dataHandleExecutor != null) {
+            dataMap = new RowBatch<>(batchHandleNum);
+        } else {
+            dataMap.clear();
+        }
+        // 删除上一个sheet的临时文件
+        clearErrorInfo();
+        errorInfoMap = new CellErrorStore(errorSpillThreshold);
+        if (errorBudget != null) {
+            errorBudget.reset();
+        }
+        if (dataHandleExecutor != null) {
+            asyncBatchHandler = new AsyncBatchHandler<>(dataHandleExecutor, dataHandleQueueCapacity,
+                    batch -> handleBatch(batch, context));
+        }
         currentSheetHeads = ConverterUtils.convertToStringMap(headMap, context);
         int maxColumnIndex = currentSheetHeads.keySet().stream()
                 .max(Integer::compareTo).orElse(-1);
@@ -182,17 +480,26 @@ public abstract class ExcelReadListener<T> implements ReadListener<T> {
         ExcelReadHeadProperty excelHeadPropertyData = context.readSheetHolder().excelReadHeadProperty();
         HeadKindEnum headKind = excelHeadPropertyData.getHeadKind();
         currentSheetHeadConfig = excelHeadPropertyData.getHeadMap();
+        ZeusAnalysisEventProcessor processor = ZeusAnalysisEventProcessor.of(context);
+        if (processor != null) {
+            // 数据转换错误由收集器批量合并，不再逐行抛出异常，其他监听器仍逐行接收异常
+            processor.getErrorCollector().attach(this);
+        }
         if (HeadKindEnum.CLASS == headKind) {
             ClassUtils.getClassFieldInfo(excelHeadPropertyData.getHeadClazz())
-                    .stream().filter(FieldInfo::isExtendColumn).findFirst()
+                    .stream().filter(FieldInfo::isExtendColumn)
+                    .filter(fieldInfo -> processor == null || processor.isIncluded(fieldInfo.getFieldName()))
+                    .findFirst()
+                    .filter(fieldInfo -> Map.class == fieldInfo.getField().getType())
                     .ifPresent(fieldInfo -> {
-                        extendField = fieldInfo.getField();
-                        extendColumnBeginIndex = currentSheetHeadConfig.keySet()
+                        Integer extendColumnBeginIndex = currentSheetHeadConfig.keySet()
                                 .stream().max(Integer::compareTo).orElse(null);
-                        if (extendColumnBeginIndex != null) {
-                            extendColumnBeginIndex++;
+                        extendColumnSetter = ModelBinder.of(excelHeadPropertyData.getHeadClazz())
+                                .getSetter(fieldInfo.getField());
+                        if (extendColumnBeginIndex != null && extendColumnSetter != null) {
+                            extendColumnKeys = new ExtendColumnMap.Keys(currentSheetHeads,
+                                    extendColumnBeginIndex + 1, maxColumnIndex);
                         }
-                        extendColumnEndIndex = maxColumnIndex;
                     });
         }
     }
@@ -203,26 +510,22 @@ public abstract class ExcelReadListener<T> implements ReadListener<T> {
      * @param readRowHolder
      */
     private void setExtendColumnData(T data, ReadRowHolder readRowHolder) {
-        if (extendColumnBeginIndex == null || extendColumnEndIndex == null) {
+        if (extendColumnKeys == null) {
             return;
         }
         Map<Integer, Cell> cellDataMap = readRowHolder.getCellMap();
         if (CollUtil.isEmpty(cellDataMap)) {
             return;
         }
-        Map<String, String> extendData = new LinkedHashMap<>();
-        for (int i = extendColumnBeginIndex; i <= extendColumnEndIndex; i++) {
+        ExtendColumnMap extendData = new ExtendColumnMap(extendColumnKeys);
+        for (int i = extendColumnKeys.getBeginColumnIndex(); i <= extendColumnKeys.getEndColumnIndex(); i++) {
             Cell cell = cellDataMap.get(i);
-            String extendHeadName = currentSheetHeads.get(i);
-            if (cell != null) {
-                extendData.put(extendHeadName, cell.toString());
-            } else {
-                extendData.put(extendHeadName, null);
-            }
+            extendData.setColumnValue(i, cell == null ? null : cell.toString());
         }
-
-        if (Map.class == extendField.getType()) {
-            ReflectUtil.setFieldValue(data, extendField, extendData);
+        try {
+            extendColumnSetter.invokeExact((Object) data, (Object) extendData);
+        } catch (Throwable e) {
+            throw new ExcelAnalysisException("Set extend column data failed", e);
         }
     }
 
@@ -1,6 +1,5 @@
 package com.jz.zeus.excel.read.listener;
 
-import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.text.CharSequenceUtil;
 import com.alibaba.excel.context.AnalysisContext;
 import com.alibaba.excel.enums.CellDataTypeEnum;
@@ -9,13 +8,15 @@ import com.alibaba.excel.event.AbstractIgnoreExceptionReadListener;
 import com.alibaba.excel.exception.ExcelDataConvertException;
 import com.alibaba.excel.metadata.CellData;
 import com.alibaba.excel.metadata.Head;
-import com.alibaba.excel.metadata.property.ExcelContentProperty;
 import com.alibaba.excel.read.metadata.holder.ReadHolder;
 import com.alibaba.excel.read.metadata.property.ExcelReadHeadProperty;
 import com.alibaba.excel.util.ConverterUtils;
 import com.jz.zeus.excel.CellErrorInfo;
 import com.jz.zeus.excel.exception.DataConvertException;
-import net.sf.cglib.beans.BeanMap;
+import com.jz.zeus.excel.read.ZeusAnalysisEventProcessor;
+import com.jz.zeus.excel.read.helper.CellErrorCollector;
+import com.jz.zeus.excel.read.helper.ColumnBinding;
+import com.jz.zeus.excel.read.helper.ModelBinder;
 
 import java.util.*;
 
@@ -25,27 +26,41 @@ import java.util.*;
  */
 public class ModelBuildEventListener extends AbstractIgnoreExceptionReadListener<Map<Integer, CellData>> {
 
+    /**
+     * 生成 {@link #columnBindings} 时使用的表头配置，用于判断表头配置是否变化
+     */
+    private Map<Integer, Head> boundHeadMap;
+
+    private ModelBinder boundModelBinder;
+
+    /**
+     * 当前 sheet 的列绑定信息
+     */
+    private ColumnBinding[] columnBindings;
+
     @Override
     public void invokeHead(Map<Integer, CellData> cellDataMap, AnalysisContext context) {}
 
     @Override
     public void invoke(Map<Integer, CellData> cellDataMap, AnalysisContext context) {
-        List<CellErrorInfo> cellErrorInfos = new ArrayList<>(cellDataMap.size());
+        // 使用 ZeusAnalysisEventProcessor 时错误信息直接记录到收集器中，否则抛出异常
+        ZeusAnalysisEventProcessor processor = ZeusAnalysisEventProcessor.of(context);
+        CellErrorCollector errorCollector = processor == null ? new CellErrorCollector() : processor.getErrorCollector();
         ReadHolder currentReadHolder = context.currentReadHolder();
         if (HeadKindEnum.CLASS == currentReadHolder.excelReadHeadProperty().getHeadKind()) {
             context.readRowHolder()
-                    .setCurrentRowAnalysisResult(buildUserModel(cellDataMap, currentReadHolder, context, cellErrorInfos));
+                    .setCurrentRowAnalysisResult(buildUserModel(cellDataMap, currentReadHolder, context, errorCollector));
         } else {
             context.readRowHolder()
-                    .setCurrentRowAnalysisResult(buildStringList(cellDataMap, currentReadHolder, context, cellErrorInfos));
+                    .setCurrentRowAnalysisResult(buildStringList(cellDataMap, currentReadHolder, context, errorCollector));
         }
-        if (CollUtil.isNotEmpty(cellErrorInfos)) {
-            throw new DataConvertException(cellErrorInfos);
+        if (processor == null && !errorCollector.isEmpty()) {
+            throw new DataConvertException(errorCollector.drain());
         }
     }
 
     private Object buildStringList(Map<Integer, CellData> cellDataMap, ReadHolder currentReadHolder,
-                                   AnalysisContext context, List<CellErrorInfo> cellErrorInfos) {
+                                   AnalysisContext context, CellErrorCollector errorCollector) {
         int index = 0;
         if (context.readWorkbookHolder().getDefaultReturnMap()) {
             Map<Integer, String> map = new LinkedHashMap<Integer, String>(cellDataMap.size() * 4 / 3 + 1);
@@ -67,7 +82,7 @@ public class ModelBuildEventListener extends AbstractIgnoreExceptionReadListener
                     value = (String) ConverterUtils.convertToJavaObject(cellData, null, null, currentReadHolder.converterMap(),
                             currentReadHolder.globalConfiguration(), rowIndex, key);
                 } catch (ExcelDataConvertException e) {
-                    cellErrorInfos.add(createCellErrorInfo(null, rowIndex, key, e));
+                    errorCollector.add(createCellErrorInfo(null, rowIndex, key, e));
                 }
                 map.put(key, value);
             }
@@ -98,7 +113,7 @@ public class ModelBuildEventListener extends AbstractIgnoreExceptionReadListener
                     value =(String) ConverterUtils.convertToJavaObject(cellData, null, null, currentReadHolder.converterMap(),
                             currentReadHolder.globalConfiguration(), rowIndex, key);
                 } catch (ExcelDataConvertException e) {
-                    cellErrorInfos.add(createCellErrorInfo(null, rowIndex, key, e));
+                    errorCollector.add(createCellErrorInfo(null, rowIndex, key, e));
                 }
                 list.add(value);
             }
@@ -112,47 +127,63 @@ public class ModelBuildEventListener extends AbstractIgnoreExceptionReadListener
     }
 
     private Object buildUserModel(Map<Integer, CellData> cellDataMap, ReadHolder currentReadHolder,
-                                  AnalysisContext context, List<CellErrorInfo> cellErrorInfos) {
+                                  AnalysisContext context, CellErrorCollector errorCollector) {
         ExcelReadHeadProperty excelReadHeadProperty = currentReadHolder.excelReadHeadProperty();
+        ModelBinder modelBinder = ModelBinder.of(excelReadHeadProperty.getHeadClazz());
+        Integer rowIndex = context.readRowHolder().getRowIndex();
         Object resultModel;
         try {
-            resultModel = excelReadHeadProperty.getHeadClazz().newInstance();
-        } catch (Exception e) {
-            throw new ExcelDataConvertException(context.readRowHolder().getRowIndex(), 0,
+            resultModel = modelBinder.newInstance();
+        } catch (Throwable e) {
+            throw new ExcelDataConvertException(rowIndex, 0,
                     new CellData(CellDataTypeEnum.EMPTY), null,
                     "Can not instance class: " + excelReadHeadProperty.getHeadClazz().getName(), e);
         }
-        Map<Integer, Head> headMap = excelReadHeadProperty.getHeadMap();
-        Map<String, Object> map = new HashMap<String, Object>(headMap.size() * 4 / 3 + 1);
-        Map<Integer, ExcelContentProperty> contentPropertyMap = excelReadHeadProperty.getContentPropertyMap();
-        for (Map.Entry<Integer, Head> entry : headMap.entrySet()) {
-            Integer index = entry.getKey();
-            if (!cellDataMap.containsKey(index)) {
-                continue;
-            }
+        for (ColumnBinding columnBinding : getColumnBindings(modelBinder, excelReadHeadProperty, context)) {
+            int index = columnBinding.getColumnIndex();
             CellData cellData = cellDataMap.get(index);
-            if (cellData.getType() == CellDataTypeEnum.EMPTY) {
+            if (cellData == null || cellData.getType() == CellDataTypeEnum.EMPTY) {
                 continue;
             }
-            ExcelContentProperty excelContentProperty = contentPropertyMap.get(index);
-            Integer rowIndex = context.readRowHolder().getRowIndex();
-            Object value = null;
             try {
                 // 对于转化过程抛出的异常不做处理，可以方便后续进行错误记录
-                value = ConverterUtils.convertToJavaObject(cellData, excelContentProperty.getField(),
-                        excelContentProperty, currentReadHolder.converterMap(), currentReadHolder.globalConfiguration(),
-                        rowIndex, index);
+                Object value = columnBinding.convert(cellData, currentReadHolder.converterMap(),
+                        currentReadHolder.globalConfiguration(), rowIndex);
+                if (value != null) {
+                    setValue(columnBinding, resultModel, value, cellData, rowIndex);
+                }
             } catch (ExcelDataConvertException e) {
-                cellErrorInfos.add(createCellErrorInfo(entry.getValue(), rowIndex, index, e));
-            }
-            if (value != null) {
-                map.put(excelContentProperty.getField().getName(), value);
+                errorCollector.add(createCellErrorInfo(columnBinding.getHead(), rowIndex, index, e));
             }
         }
-        BeanMap.create(resultModel).putAll(map);
         return resultModel;
     }
 
+    /**
+     * 获取当前 sheet 的列绑定信息，表头配置变化时（新的 sheet 或重新匹配表头后）重新生成
+     */
+    private ColumnBinding[] getColumnBindings(ModelBinder modelBinder, ExcelReadHeadProperty excelReadHeadProperty,
+                                              AnalysisContext context) {
+        Map<Integer, Head> headMap = excelReadHeadProperty.getHeadMap();
+        if (columnBindings == null || boundHeadMap != headMap || boundModelBinder != modelBinder) {
+            ZeusAnalysisEventProcessor processor = ZeusAnalysisEventProcessor.of(context);
+            columnBindings = modelBinder.bind(headMap, excelReadHeadProperty.getContentPropertyMap(),
+                    processor == null ? null : processor.getIncludeFieldNames());
+            boundHeadMap = headMap;
+            boundModelBinder = modelBinder;
+        }
+        return columnBindings;
+    }
+
+    private void setValue(ColumnBinding columnBinding, Object model, Object value, CellData cellData, Integer rowIndex) {
+        try {
+            columnBinding.setValue(model, value);
+        } catch (Throwable e) {
+            throw new ExcelDataConvertException(rowIndex, columnBinding.getColumnIndex(), cellData,
+                    columnBinding.getContentProperty(), "Can not set field: " + columnBinding.getHead().getFieldName(), e);
+        }
+    }
+
     private CellErrorInfo createCellErrorInfo(Head head, Integer rowIndex, Integer columnIndex, ExcelDataConvertException e) {
         String errorMsg = "数据格式错误";
         if (e.getCause() instanceof DataConvertException) {
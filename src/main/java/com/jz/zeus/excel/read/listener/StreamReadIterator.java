@@ -0,0 +1,71 @@
+package com.jz.zeus.excel.read.listener;
+
+import com.alibaba.excel.exception.ExcelAnalysisException;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 从 {@link StreamReadListener} 中拉取数据的迭代器，只能在一个线程中读取，{@link #close()} 可在任意线程中调用。
+ * 未读取完毕时应调用 {@link #close()} 结束解析，迭代器不再被引用后解析线程也会结束解析
+ * @Author JZ
+ * @Date 2021/7/9 16:30
+ */
+public class StreamReadIterator<T> implements Iterator<T>, Closeable {
+
+    private final StreamReadListener<T> streamReadListener;
+
+    /**
+     * 下一个返回的数据，为null时需从队列中获取
+     */
+    private Object next;
+
+    public StreamReadIterator(StreamReadListener<T> streamReadListener) {
+        this.streamReadListener = streamReadListener;
+        streamReadListener.setConsumer(this);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (streamReadListener.isCancelled()) {
+            return false;
+        }
+        if (next == null) {
+            try {
+                next = streamReadListener.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ExcelAnalysisException("Interrupted while waiting for data", e);
+            }
+        }
+        if (next != StreamReadListener.END) {
+            return true;
+        }
+        Throwable e = streamReadListener.takeFailure();
+        if (e != null) {
+            throw e instanceof RuntimeException ? (RuntimeException) e : new ExcelAnalysisException(e.getMessage(), e);
+        }
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T data = (T) next;
+        next = null;
+        return data;
+    }
+
+    /**
+     * 停止读取，解析线程会在处理下一行时结束，等待数据的读取线程会被唤醒
+     */
+    @Override
+    public void close() {
+        streamReadListener.cancel();
+    }
+
+}
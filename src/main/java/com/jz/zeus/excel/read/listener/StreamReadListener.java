@@ -0,0 +1,162 @@
+package com.jz.zeus.excel.read.listener;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.lang.Assert;
+import com.alibaba.excel.context.AnalysisContext;
+import com.alibaba.excel.metadata.CellData;
+import com.alibaba.excel.metadata.CellExtra;
+import com.alibaba.excel.read.listener.ReadListener;
+import com.jz.zeus.excel.CellErrorInfo;
+import com.jz.zeus.excel.exception.DataConvertException;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 拉取式读取监听器，解析线程通过有界队列将每行数据交给 {@link StreamReadIterator}，队列满时解析线程等待，读取占用的内存与文件大小无关。
+ * 迭代器关闭或不再被引用后，解析线程会在下一行提前结束解析。
+ * 数据转换失败的单元格对应字段为null，不会中断读取，错误信息交给 errorHandler 处理
+ * @Author JZ
+ * @Date 2021/7/9 16:30
+ */
+public class StreamReadListener<T> implements ReadListener<T> {
+
+    static final Object END = new Object();
+
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final BlockingQueue<Object> queue;
+
+    /**
+     * 数据转换错误信息的处理器，在解析线程中调用，为null时忽略错误信息
+     */
+    private final Consumer<CellErrorInfo> errorHandler;
+
+    private volatile boolean cancelled;
+
+    /**
+     * 解析线程中出现的异常
+     */
+    private volatile Throwable failure;
+
+    /**
+     * 读取数据的迭代器，解析线程不持有迭代器的强引用，迭代器被回收时结束解析
+     */
+    private volatile WeakReference<Object> consumer;
+
+    public StreamReadListener(int bufferSize) {
+        this(bufferSize, null);
+    }
+
+    /**
+     * @param bufferSize        解析线程与读取线程之间缓冲的最大行数
+     * @param errorHandler      数据转换错误信息的处理器，在解析线程中调用
+     */
+    public StreamReadListener(int bufferSize, Consumer<CellErrorInfo> errorHandler) {
+        Assert.isTrue(bufferSize > 0, "BufferSize has to be greater than 0");
+        this.queue = new ArrayBlockingQueue<>(bufferSize);
+        this.errorHandler = errorHandler;
+    }
+
+    @Override
+    public void invokeHead(Map<Integer, CellData> headMap, AnalysisContext context) {}
+
+    @Override
+    public void invoke(T data, AnalysisContext context) {
+        offer(data);
+    }
+
+    @Override
+    public void extra(CellExtra extra, AnalysisContext context) {}
+
+    @Override
+    public void doAfterAllAnalysed(AnalysisContext context) {}
+
+    @Override
+    public boolean hasNext(AnalysisContext context) {
+        return !cancelled;
+    }
+
+    @Override
+    public void onException(Exception exception, AnalysisContext context) throws Exception {
+        if (!(exception instanceof DataConvertException)) {
+            throw exception;
+        }
+        List<CellErrorInfo> errorInfos = ((DataConvertException) exception).getCellErrorInfos();
+        if (errorHandler != null && CollUtil.isNotEmpty(errorInfos)) {
+            errorInfos.forEach(errorHandler);
+        }
+    }
+
+    /**
+     * 解析结束，由解析线程调用
+     * @param e     解析过程中出现的异常，正常结束时为null
+     */
+    public void finish(Throwable e) {
+        failure = e;
+        offer(END);
+    }
+
+    void setConsumer(Object consumer) {
+        this.consumer = new WeakReference<>(consumer);
+    }
+
+    /**
+     * 获取下一个数据，解析结束或已取消时返回 {@link #END}
+     */
+    Object take() throws InterruptedException {
+        if (cancelled) {
+            return END;
+        }
+        Object data = queue.take();
+        return cancelled ? END : data;
+    }
+
+    /**
+     * 获取并清除解析线程中出现的异常
+     */
+    Throwable takeFailure() {
+        Throwable e = failure;
+        failure = null;
+        return e;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 取消解析，并唤醒等待数据的读取线程
+     */
+    void cancel() {
+        cancelled = true;
+        queue.clear();
+        while (!queue.offer(END)) {
+            queue.clear();
+        }
+    }
+
+    private void offer(Object data) {
+        try {
+            while (!cancelled) {
+                if (queue.offer(data, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+                // 迭代器未关闭便不再被引用时，没有线程会再读取数据
+                WeakReference<Object> consumer = this.consumer;
+                if (consumer != null && consumer.get() == null) {
+                    cancelled = true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled = true;
+        }
+    }
+
+}
@@ -6,6 +6,7 @@ import cn.hutool.core.util.ArrayUtil;
 import com.alibaba.excel.write.metadata.holder.WriteSheetHolder;
 import com.alibaba.excel.write.metadata.holder.WriteWorkbookHolder;
 import com.jz.zeus.excel.constant.Constants;
+import com.jz.zeus.excel.write.helper.CellStyleRegistry;
 import lombok.experimental.UtilityClass;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
@@ -164,11 +165,8 @@ public class ExcelUtils {
         if (cell == null) {
             cell = row.createCell(columnIndex);
         }
-        CellStyle cellStyle = sheet.getWorkbook().createCellStyle();
-        cellStyle.cloneStyleFrom(cell.getCellStyle());
-        cellStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        cellStyle.setFillForegroundColor(IndexedColors.RED.index);
-        cell.setCellStyle(cellStyle);
+        Workbook workbook = sheet.getWorkbook();
+        cell.setCellStyle(CellStyleRegistry.of(workbook).getFillStyle(workbook, cell.getCellStyle(), IndexedColors.RED.index));
 
         Drawing<?> drawing = sheet.createDrawingPatriarch();
         Comment comment = drawing.createCellComment(new XSSFClientAnchor(0, 0, 0, 0, columnIndex, rowIndex, columnIndex+2, rowIndex+2));
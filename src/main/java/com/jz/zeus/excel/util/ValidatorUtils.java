@@ -4,8 +4,10 @@ import com.jz.zeus.excel.validator.VerifyResult;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
+import jakarta.validation.metadata.BeanDescriptor;
 import lombok.experimental.UtilityClass;
 import org.hibernate.validator.HibernateValidator;
+import org.hibernate.validator.internal.util.ConcurrentReferenceHashMap;
 
 import java.util.*;
 
@@ -26,6 +28,11 @@ public class ValidatorUtils {
             .configure()
             .buildValidatorFactory().getValidator();
 
+    /**
+     * key 类、value 该类是否存在需校验的约束
+     */
+    private static final Map<Class<?>, Boolean> BEAN_CONSTRAINED_CACHE = new ConcurrentReferenceHashMap<>();
+
     public <T> VerifyResult validate(T bean) {
         return validate(bean, false);
     }
@@ -34,13 +41,16 @@ public class ValidatorUtils {
      * 校验bean中是否符合注解中的条件
      * @param bean 需校验对象
      * @param <T>
-     * @return 错误信息，key 校验失败字段名、value 错误信息
+     * @return 错误信息，key 校验失败字段名、value 错误信息；没有约束或校验通过时返回没有错误信息的新结果
      */
     public <T> VerifyResult validate(T bean, boolean isFastFail) {
         if (bean == null) {
             return null;
         }
-        Set<ConstraintViolation<T>> constraintViolations = (isFastFail ? FAST_FAIL_VALIDATOR : VALIDATOR).validate(bean);
+        if (!isBeanConstrained(bean.getClass())) {
+            return new VerifyResult();
+        }
+        Set<ConstraintViolation<T>> constraintViolations = getValidator(isFastFail).validate(bean);
         if (constraintViolations == null) {
             return null;
         }
@@ -52,4 +62,25 @@ public class ValidatorUtils {
         return verifyResult;
     }
 
+    /**
+     * 获取按注解校验使用的 Validator
+     * @param isFastFail 是否在第一个校验失败时结束
+     */
+    public Validator getValidator(boolean isFastFail) {
+        return isFastFail ? FAST_FAIL_VALIDATOR : VALIDATOR;
+    }
+
+    /**
+     * 类中是否存在需校验的约束，包括类及属性上的约束与需级联校验的属性，结果按类缓存
+     */
+    public boolean isBeanConstrained(Class<?> beanClass) {
+        Boolean constrained = BEAN_CONSTRAINED_CACHE.get(beanClass);
+        if (constrained == null) {
+            BeanDescriptor beanDescriptor = VALIDATOR.getConstraintsForClass(beanClass);
+            constrained = beanDescriptor.isBeanConstrained() || !beanDescriptor.getConstrainedProperties().isEmpty();
+            BEAN_CONSTRAINED_CACHE.put(beanClass, constrained);
+        }
+        return constrained;
+    }
+
 }
@@ -1,31 +1,32 @@
 package com.jz.zeus.excel.validator;
 
-import cn.hutool.core.lang.Assert;
 import cn.hutool.core.text.CharSequenceUtil;
-import cn.hutool.core.util.StrUtil;
 import com.jz.zeus.excel.interfaces.FieldGetter;
-import com.jz.zeus.excel.util.ValidatorUtils;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.function.Predicate;
 
 public class BeanValidator<T> {
 
-    private final static String COLLECTION_FIELD_SUFFIX = "[%d].";
-
     private T bean;
 
+    private List<VerifyInfo> verifyInfos = new ArrayList<>();
+
     /**
-     * 是否快速失败
+     * 新增规则的次数，用于判断引用了本校验器的已编译程序是否过期
      */
-    private boolean enabledFastFail;
+    private volatile int modCount;
 
-    private VerifyResult verifyResult;
-
-    private List<VerifyInfo> verifyInfos = new ArrayList<>();
+    /**
+     * 已编译的校验程序，程序中任一校验器新增规则后重新编译
+     */
+    private volatile CompiledProgram<T> compiled;
 
     private BeanValidator() {}
 
@@ -66,68 +67,68 @@ public class BeanValidator<T> {
     }
 
     public <R> BeanValidator<T> verify(FieldGetter<T, R> fieldGetter, Predicate<R> condition, String errorMsg) {
-        verifyInfos.add(VerifyInfo.build(fieldGetter, condition, errorMsg));
+        addVerifyInfo(VerifyInfo.build(fieldGetter, condition, errorMsg));
         return this;
     }
 
     public <R> BeanValidator<T> verify(boolean precondition, FieldGetter<T, R> fieldGetter, Predicate<R> condition, String errorMsg) {
-        verifyInfos.add(VerifyInfo.build(precondition, fieldGetter, condition, errorMsg));
+        addVerifyInfo(VerifyInfo.build(precondition, fieldGetter, condition, errorMsg));
         return this;
     }
 
     public <R> BeanValidator<T> verify(Predicate<T> precondition, FieldGetter<T, R> fieldGetter, Predicate<R> condition, String errorMsg) {
-        verifyInfos.add(VerifyInfo.build(precondition, fieldGetter, condition, errorMsg));
+        addVerifyInfo(VerifyInfo.build(precondition, fieldGetter, condition, errorMsg));
         return this;
     }
 
     public <R> BeanValidator<T> verifyBean(FieldGetter<T, R> fieldGetter, BeanValidator<R> beanValidator) {
-        verifyInfos.add(VerifyInfo.build(fieldGetter, beanValidator));
+        addVerifyInfo(VerifyInfo.build(fieldGetter, beanValidator));
         return this;
     }
 
     public <R> BeanValidator<T> verifyBean(boolean precondition, FieldGetter<T, R> fieldGetter, BeanValidator<R> beanValidator) {
-        verifyInfos.add(VerifyInfo.build(precondition, fieldGetter, beanValidator));
+        addVerifyInfo(VerifyInfo.build(precondition, fieldGetter, beanValidator));
         return this;
     }
 
     public <R> BeanValidator<T> verifyBean(Predicate<T> precondition, FieldGetter<T, R> fieldGetter, BeanValidator<R> beanValidator) {
-        verifyInfos.add(VerifyInfo.build(precondition, fieldGetter, beanValidator));
+        addVerifyInfo(VerifyInfo.build(precondition, fieldGetter, beanValidator));
         return this;
     }
 
     public <R> BeanValidator<T> verifyByAnnotation(FieldGetter<T, R> fieldGetter) {
-        verifyInfos.add(VerifyInfo.build(fieldGetter, true));
+        addVerifyInfo(VerifyInfo.build(fieldGetter, true));
         return this;
     }
 
     public <R> BeanValidator<T> verifyByAnnotation(boolean precondition, FieldGetter<T, R> fieldGetter) {
-        verifyInfos.add(VerifyInfo.build(precondition, fieldGetter, true));
+        addVerifyInfo(VerifyInfo.build(precondition, fieldGetter, true));
         return this;
     }
 
     public <R> BeanValidator<T> verifyByAnnotation(Predicate<T> precondition, FieldGetter<T, R> fieldGetter) {
-        verifyInfos.add(VerifyInfo.build(precondition, fieldGetter, true));
+        addVerifyInfo(VerifyInfo.build(precondition, fieldGetter, true));
         return this;
     }
 
     public <E, R extends Iterable<E>> BeanValidator<T> verifyCollection(FieldGetter<T, R> fieldGetter, BeanValidator<E> beanValidator) {
-        verifyInfos.add(VerifyInfo.build(fieldGetter, beanValidator));
+        addVerifyInfo(VerifyInfo.build(fieldGetter, beanValidator));
         return this;
     }
 
     public <E, R extends Iterable<E>> BeanValidator<T> verifyCollection(Predicate<T> precondition, FieldGetter<T, R> fieldGetter, BeanValidator<E> beanValidator) {
-        verifyInfos.add(VerifyInfo.build(precondition, fieldGetter, beanValidator));
+        addVerifyInfo(VerifyInfo.build(precondition, fieldGetter, beanValidator));
         return this;
     }
 
     public <E, R extends Iterable<E>> BeanValidator<T> verifyCollection(boolean precondition, FieldGetter<T, R> fieldGetter, BeanValidator<E> beanValidator) {
-        verifyInfos.add(VerifyInfo.build(precondition, fieldGetter, beanValidator));
+        addVerifyInfo(VerifyInfo.build(precondition, fieldGetter, beanValidator));
         return this;
     }
 
-    public VerifyResult doVerify(T bean, boolean enabledFastFail) {
-        this.bean = bean;
-        return doVerify(enabledFastFail);
+    private void addVerifyInfo(VerifyInfo verifyInfo) {
+        verifyInfos.add(verifyInfo);
+        modCount++;
     }
 
     public VerifyResult doVerify() {
@@ -135,52 +136,83 @@ public class BeanValidator<T> {
     }
 
     public VerifyResult doVerify(boolean enabledFastFail) {
-        Assert.notNull(this.bean, "Bean can not be null");
-        this.enabledFastFail = enabledFastFail;
-        verifyResult = new VerifyResult();
-        for (VerifyInfo verifyInfo : verifyInfos) {
-            if (!verifyInfo.verifyPrecondition(bean)) {
-                continue;
-            }
-            FieldGetter fieldGetter = verifyInfo.getFieldGetter();
-            String fieldName = fieldGetter.getFieldName();
-            Object value = fieldGetter.apply(bean);
-            if (verifyInfo.isAnnoationVerify()) {
-                verifyResult.addVerifyResult(ValidatorUtils.validate(value, enabledFastFail), fieldName, StrUtil.DOT);
-                if (stopVerify()) {
-                    return verifyResult;
-                }
-            }
-            if (Objects.isNull(verifyInfo.getChildValidator())) {
-                if (Objects.nonNull(verifyInfo.getCondition()) && !verifyInfo.getCondition().test(value)) {
-                    verifyResult.addErrorInfo(fieldName, verifyInfo.getErrorMsg());
-                }
-                if (stopVerify()) {
-                    return verifyResult;
-                }
-                continue;
+        return doVerify(this.bean, enabledFastFail);
+    }
+
+    /**
+     * 校验指定的对象，规则在第一次校验时编译为 {@link VerifyProgram}，之后本校验器或子校验器新增规则会重新编译
+     * @return 校验结果，校验通过时返回新的空结果
+     */
+    public VerifyResult doVerify(T bean, boolean enabledFastFail) {
+        VerifyResult verifyResult = compile().doVerify(bean, enabledFastFail);
+        return verifyResult == VerifyResult.empty() ? new VerifyResult() : verifyResult;
+    }
+
+    /**
+     * 使用编译后的校验程序校验多个对象，前置条件为常量的规则在编译时已处理
+     * @see VerifyProgram#doVerifyAll(List, Executor)
+     */
+    public Map<Integer, VerifyResult> doVerifyAll(List<T> beans, Executor executor) {
+        return compile().doVerifyAll(beans, executor);
+    }
+
+    public Map<Integer, VerifyResult> doVerifyAll(List<T> beans, Executor executor, boolean enabledFastFail) {
+        return compile().doVerifyAll(beans, executor, enabledFastFail);
+    }
+
+    /**
+     * 将当前的校验规则编译为不可变的校验程序，程序可在多个线程中同时使用，之后新增的规则不影响已返回的程序。
+     * 本校验器及其引用的子校验器没有新增规则时复用上次编译的程序
+     */
+    public VerifyProgram<T> compile() {
+        CompiledProgram<T> compiled = this.compiled;
+        if (compiled == null || compiled.isStale()) {
+            Map<BeanValidator<?>, VerifyProgram<?>> compiledMap = new IdentityHashMap<>();
+            VerifyProgram<T> program = VerifyProgram.compile(verifyInfos, this, compiledMap);
+            compiled = new CompiledProgram<>(program, compiledMap.keySet());
+            this.compiled = compiled;
+        }
+        return compiled.program;
+    }
+
+    /**
+     * 作为子校验器编译，不复用各校验器单独编译的程序，以便根校验器记录整个程序中所有校验器的规则修改次数
+     */
+    VerifyProgram<T> compile(Map<BeanValidator<?>, VerifyProgram<?>> compiledMap) {
+        return VerifyProgram.compile(verifyInfos, this, compiledMap);
+    }
+
+    /**
+     * 编译后的校验程序及编译时程序中各校验器的规则修改次数
+     */
+    private static class CompiledProgram<T> {
+
+        private final VerifyProgram<T> program;
+
+        private final BeanValidator<?>[] validators;
+
+        private final int[] modCounts;
+
+        CompiledProgram(VerifyProgram<T> program, Collection<BeanValidator<?>> validators) {
+            this.program = program;
+            this.validators = validators.toArray(new BeanValidator<?>[0]);
+            this.modCounts = new int[this.validators.length];
+            for (int i = 0; i < this.validators.length; i++) {
+                modCounts[i] = this.validators[i].modCount;
             }
-            BeanValidator childValidator = verifyInfo.getChildValidator();
-            if (value instanceof Iterable) {
-                int index = 0;
-                Iterator<?> iterator = ((Iterable<?>) value).iterator();
-                while (iterator.hasNext()) {
-                    Object element = iterator.next();
-                    verifyResult.addVerifyResult(childValidator.doVerify(element, enabledFastFail), fieldName,
-                            String.format(COLLECTION_FIELD_SUFFIX, index++));
+        }
+
+        /**
+         * 程序中是否有校验器在编译后新增了规则
+         */
+        boolean isStale() {
+            for (int i = 0; i < validators.length; i++) {
+                if (validators[i].modCount != modCounts[i]) {
+                    return true;
                 }
-            } else {
-                verifyResult.addVerifyResult(childValidator.doVerify(value, enabledFastFail), fieldName, StrUtil.DOT);
-            }
-            if (stopVerify()) {
-                return verifyResult;
             }
+            return false;
         }
-        return verifyResult;
-    }
-
-    private boolean stopVerify() {
-        return enabledFastFail && verifyResult.hasError();
     }
 
 }
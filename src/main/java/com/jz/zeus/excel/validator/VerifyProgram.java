@@ -0,0 +1,254 @@
+package com.jz.zeus.excel.validator;
+
+import cn.hutool.core.lang.Assert;
+import com.jz.zeus.excel.util.ValidatorUtils;
+import jakarta.validation.ConstraintViolation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 由 {@link BeanValidator} 编译得到的不可变校验程序，字段名在编译时解析，子对象的校验规则编译为子程序。
+ * 校验过程不修改程序的状态，可在多个线程中同时校验不同的对象；对象校验通过时不创建校验结果，返回共享的 {@link VerifyResult#empty()}
+ * @Author JZ
+ * @Date 2021/7/20 14:05
+ */
+public final class VerifyProgram<T> {
+
+    /**
+     * 批量校验时每个任务最少校验的对象数
+     */
+    private static final int MIN_SEGMENT_SIZE = 256;
+
+    /**
+     * 编译完成后不再修改，随根程序一起发布
+     */
+    private VerifyStep[] steps;
+
+    private VerifyProgram() {}
+
+    /**
+     * 编译校验规则，同一个校验器在规则中出现多次时只编译一次。
+     * 编译子规则前先登记当前程序，校验器引用自身（如树形结构的子节点）或相互引用时直接复用该程序
+     * @param validator     规则所属的校验器
+     */
+    static <T> VerifyProgram<T> compile(List<VerifyInfo> verifyInfos, BeanValidator<?> validator,
+                                        Map<BeanValidator<?>, VerifyProgram<?>> compiledMap) {
+        VerifyProgram<T> program = new VerifyProgram<>();
+        compiledMap.put(validator, program);
+        VerifyStep[] steps = new VerifyStep[verifyInfos.size()];
+        int stepNum = 0;
+        for (VerifyInfo verifyInfo : verifyInfos) {
+            // 前置条件为常量false的规则永远不会执行
+            if (Boolean.FALSE.equals(verifyInfo.getPrecondition())) {
+                continue;
+            }
+            VerifyProgram<?> childProgram = null;
+            BeanValidator<?> childValidator = verifyInfo.getChildValidator();
+            if (childValidator != null) {
+                childProgram = compiledMap.get(childValidator);
+                if (childProgram == null) {
+                    childProgram = childValidator.compile(compiledMap);
+                }
+            }
+            steps[stepNum++] = new VerifyStep(verifyInfo, childProgram);
+        }
+        if (stepNum < steps.length) {
+            VerifyStep[] newSteps = new VerifyStep[stepNum];
+            System.arraycopy(steps, 0, newSteps, 0, stepNum);
+            steps = newSteps;
+        }
+        program.steps = steps;
+        return program;
+    }
+
+    public VerifyResult doVerify(T bean) {
+        return doVerify(bean, false);
+    }
+
+    /**
+     * 校验指定的对象
+     * @return 校验通过时返回不可修改的 {@link VerifyResult#empty()}
+     */
+    public VerifyResult doVerify(T bean, boolean enabledFastFail) {
+        Assert.notNull(bean, "Bean can not be null");
+        VerifyResult verifyResult = null;
+        for (VerifyStep step : steps) {
+            if (step.preconditionPredicate != null && !step.preconditionPredicate.test(bean)) {
+                continue;
+            }
+            Object value = step.getter.apply(bean);
+            // 没有约束的字段值无需按注解校验
+            if (step.annotationVerify && value != null && ValidatorUtils.isBeanConstrained(value.getClass())) {
+                verifyResult = addChildResult(verifyResult, validateAnnotation(value, enabledFastFail),
+                        step.fieldName, -1);
+                if (enabledFastFail && verifyResult != null && verifyResult.hasError()) {
+                    return verifyResult;
+                }
+            }
+            if (step.childProgram == null) {
+                if (step.condition != null && !step.condition.test(value)) {
+                    if (verifyResult == null) {
+                        verifyResult = new VerifyResult();
+                    }
+                    verifyResult.addErrorInfo(step.fieldName, step.errorMsg);
+                }
+            } else if (value instanceof Iterable) {
+                int index = 0;
+                for (Object element : (Iterable<?>) value) {
+                    VerifyResult childResult = step.childProgram.doVerifyChild(element, enabledFastFail);
+                    if (childResult != null) {
+                        verifyResult = addChildResult(verifyResult, childResult, step.fieldName, index);
+                    }
+                    index++;
+                }
+            } else {
+                verifyResult = addChildResult(verifyResult, step.childProgram.doVerifyChild(value, enabledFastFail),
+                        step.fieldName, -1);
+            }
+            if (enabledFastFail && verifyResult != null && verifyResult.hasError()) {
+                return verifyResult;
+            }
+        }
+        return verifyResult == null ? VerifyResult.empty() : verifyResult;
+    }
+
+    /**
+     * 校验多个对象，对象按顺序分为多段，每段作为一个任务交给 executor 执行
+     * @param executor      为null时在当前线程中校验
+     * @return key 对象在 beans 中的索引、value 校验结果，按索引升序排列，只包含校验失败的对象
+     */
+    public Map<Integer, VerifyResult> doVerifyAll(List<T> beans, Executor executor) {
+        return doVerifyAll(beans, executor, false);
+    }
+
+    public Map<Integer, VerifyResult> doVerifyAll(List<T> beans, Executor executor, boolean enabledFastFail) {
+        Assert.notNull(beans, "Beans can not be null");
+        int beanNum = beans.size();
+        VerifyResult[] verifyResults = new VerifyResult[beanNum];
+        if (executor == null || beanNum <= MIN_SEGMENT_SIZE) {
+            doVerifySegment(beans, 0, beanNum, verifyResults, enabledFastFail);
+        } else {
+            int segmentSize = Math.max(MIN_SEGMENT_SIZE, beanNum / (Runtime.getRuntime().availableProcessors() * 4) + 1);
+            List<CompletableFuture<Void>> futures = new ArrayList<>(beanNum / segmentSize + 1);
+            for (int begin = 0; begin < beanNum; begin += segmentSize) {
+                int from = begin;
+                int to = Math.min(beanNum, begin + segmentSize);
+                futures.add(CompletableFuture.runAsync(() -> doVerifySegment(beans, from, to, verifyResults, enabledFastFail), executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        }
+        int errorBeanNum = 0;
+        for (VerifyResult verifyResult : verifyResults) {
+            if (verifyResult != null) {
+                errorBeanNum++;
+            }
+        }
+        Map<Integer, VerifyResult> resultMap = new LinkedHashMap<>(errorBeanNum * 4 / 3 + 1);
+        for (int i = 0; i < beanNum; i++) {
+            if (verifyResults[i] != null) {
+                resultMap.put(i, verifyResults[i]);
+            }
+        }
+        return resultMap;
+    }
+
+    /**
+     * 校验 beans 中 [from, to) 的对象，校验失败的结果放入 verifyResults 的相同位置，null 对象不校验
+     */
+    private void doVerifySegment(List<T> beans, int from, int to, VerifyResult[] verifyResults, boolean enabledFastFail) {
+        for (int i = from; i < to; i++) {
+            T bean = beans.get(i);
+            if (bean == null) {
+                continue;
+            }
+            VerifyResult verifyResult = doVerify(bean, enabledFastFail);
+            if (verifyResult.hasError()) {
+                verifyResults[i] = verifyResult;
+            }
+        }
+    }
+
+    /**
+     * 校验子对象
+     * @return 校验通过或子对象为null时返回null
+     */
+    @SuppressWarnings("unchecked")
+    private VerifyResult doVerifyChild(Object bean, boolean enabledFastFail) {
+        if (bean == null) {
+            return null;
+        }
+        VerifyResult verifyResult = doVerify((T) bean, enabledFastFail);
+        return verifyResult.hasError() ? verifyResult : null;
+    }
+
+    /**
+     * 合并子结果，字段路径在读取错误信息时才生成
+     * @param index     集合中元素的索引，不是集合元素时为-1
+     */
+    /**
+     * 按注解校验对象，与 {@link ValidatorUtils#validate(Object, boolean)} 不同，校验通过时返回共享的 {@link VerifyResult#empty()}
+     */
+    static VerifyResult validateAnnotation(Object bean, boolean enabledFastFail) {
+        Set<ConstraintViolation<Object>> constraintViolations = ValidatorUtils.getValidator(enabledFastFail).validate(bean);
+        if (constraintViolations == null || constraintViolations.isEmpty()) {
+            return VerifyResult.empty();
+        }
+        VerifyResult verifyResult = new VerifyResult();
+        constraintViolations.forEach(violation ->
+                verifyResult.addErrorInfo(violation.getPropertyPath().toString(), violation.getMessage()));
+        return verifyResult;
+    }
+
+    private static VerifyResult addChildResult(VerifyResult verifyResult, VerifyResult childResult,
+                                               String parentFieldName, int index) {
+        if (childResult == null || !childResult.hasError()) {
+            return verifyResult;
+        }
+        if (verifyResult == null) {
+            verifyResult = new VerifyResult();
+        }
+        // 子结果由当前程序创建，不会再被修改，合并时无需复制
+        verifyResult.mergeChildResult(childResult, parentFieldName, index);
+        return verifyResult;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static class VerifyStep {
+
+        private final String fieldName;
+
+        private final Function getter;
+
+        /**
+         * 前置条件，为null时不检查；前置条件为常量时在编译时处理
+         */
+        private final Predicate preconditionPredicate;
+
+        private final boolean annotationVerify;
+
+        private final Predicate condition;
+
+        private final String errorMsg;
+
+        private final VerifyProgram childProgram;
+
+        VerifyStep(VerifyInfo verifyInfo, VerifyProgram childProgram) {
+            this.fieldName = verifyInfo.getFieldGetter().getFieldName();
+            this.getter = verifyInfo.getFieldGetter();
+            this.preconditionPredicate = verifyInfo.getPreconditionPredicate();
+            this.annotationVerify = verifyInfo.isAnnoationVerify();
+            this.condition = verifyInfo.getCondition();
+            this.errorMsg = verifyInfo.getErrorMsg();
+            this.childProgram = childProgram;
+        }
+    }
+
+}
@@ -2,45 +2,67 @@ package com.jz.zeus.excel.validator;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.text.CharSequenceUtil;
-import cn.hutool.core.text.StrBuilder;
 import cn.hutool.core.util.StrUtil;
 import com.jz.zeus.excel.interfaces.FieldGetter;
-import lombok.Getter;
-import lombok.ToString;
 
 import java.util.*;
 
 /**
+ * 校验结果，合并子对象的校验结果时记录子结果的快照及其所在的字段，合并后对子结果的修改不影响当前结果，
+ * 完整的字段路径在调用 {@link #getErrorInfoMap()} 时才生成
  * @Author JZ
  * @Date 2021/5/18 10:58
  */
-@ToString
 public class VerifyResult {
 
-    @Getter
-    private Map<String, List<String>> errorInfoMap = new HashMap<>();
+    private static final VerifyResult EMPTY = new VerifyResult();
+
+    /**
+     * 当前对象的错误信息，key 字段名、value 错误信息
+     */
+    private Map<String, List<String>> localErrorInfoMap;
+
+    /**
+     * 合并的子结果
+     */
+    private List<ChildResult> childResults;
+
+    /**
+     * 错误信息总数，包含子结果中的错误信息
+     */
+    private int errorCount;
+
+    /**
+     * 已生成的完整错误信息，修改时清空
+     */
+    private Map<String, List<String>> errorInfoMap;
+
+    /**
+     * 共享的空校验结果，不可修改
+     */
+    public static VerifyResult empty() {
+        return EMPTY;
+    }
 
     public void addErrorInfo(String fieldName, String errorMsg) {
-        List<String> errorMsgs = errorInfoMap.get(fieldName);
+        checkModifiable();
+        if (Objects.isNull(localErrorInfoMap)) {
+            localErrorInfoMap = new LinkedHashMap<>();
+        }
+        List<String> errorMsgs = localErrorInfoMap.get(fieldName);
         if (Objects.isNull(errorMsgs)) {
             errorMsgs = new ArrayList<>();
-            errorInfoMap.put(fieldName, errorMsgs);
+            localErrorInfoMap.put(fieldName, errorMsgs);
         }
         if (CharSequenceUtil.isNotBlank(errorMsg)) {
             errorMsgs.add(errorMsg);
+            errorCount++;
         }
+        errorInfoMap = null;
     }
 
     public <T, R> void addErrorInfo(FieldGetter<T, R> fieldGetter, String errorMsg) {
-        String fieldName = fieldGetter.getFieldName();
-        List<String> errorMsgs = errorInfoMap.get(fieldName);
-        if (Objects.isNull(errorMsgs)) {
-            errorMsgs = new ArrayList<>();
-            errorInfoMap.put(fieldName, errorMsgs);
-        }
-        if (CharSequenceUtil.isNotBlank(errorMsg)) {
-            errorMsgs.add(errorMsg);
-        }
+        addErrorInfo(fieldGetter.getFieldName(), errorMsg);
     }
 
     public void addErrorInfo(String fieldName, List<String> errorMsgs) {
@@ -63,30 +85,170 @@ public class VerifyResult {
     }
 
     public void addVerifyResult(VerifyResult verifyResult) {
-        if (Objects.isNull(verifyResult) || CollUtil.isEmpty(verifyResult.errorInfoMap)) {
+        addChildResult(verifyResult, null, null, -1);
+    }
+
+    /**
+     * 合并字段值的校验结果，字段路径为 parentFieldName + parentFieldNameSuffix + 子结果中的字段名
+     */
+    public void addVerifyResult(VerifyResult verifyResult, String parentFieldName, String parentFieldNameSuffix) {
+        addChildResult(verifyResult, parentFieldName, parentFieldNameSuffix, -1);
+    }
+
+    /**
+     * 合并子对象的校验结果，字段路径为 parentFieldName.子结果中的字段名
+     */
+    public void addVerifyResult(VerifyResult verifyResult, String parentFieldName) {
+        addChildResult(verifyResult, parentFieldName, StrUtil.DOT, -1);
+    }
+
+    /**
+     * 合并集合中元素的校验结果，字段路径为 parentFieldName[index].子结果中的字段名
+     */
+    public void addVerifyResult(VerifyResult verifyResult, String parentFieldName, int index) {
+        addChildResult(verifyResult, parentFieldName, null, index);
+    }
+
+    private void addChildResult(VerifyResult verifyResult, String parentFieldName, String parentFieldNameSuffix, int index) {
+        if (Objects.isNull(verifyResult) || verifyResult.isEmpty()) {
             return;
         }
-        for (Map.Entry<String, List<String>> entry : verifyResult.errorInfoMap.entrySet()) {
-            addErrorInfo(entry.getKey(), entry.getValue());
-        }
+        checkModifiable();
+        mergeChildResult(verifyResult.copy(), parentFieldName, parentFieldNameSuffix, index);
     }
 
-    public void addVerifyResult(VerifyResult verifyResult, String parentFieldName, String parentFieldNameSuffix) {
-        if (Objects.isNull(verifyResult) || CollUtil.isEmpty(verifyResult.errorInfoMap)) {
+    /**
+     * 合并子结果但不复制，子结果之后不能再被修改，只用于 {@link VerifyProgram} 合并自己创建的结果
+     * @param index     集合中元素的索引，不是集合元素时为-1
+     */
+    void mergeChildResult(VerifyResult verifyResult, String parentFieldName, int index) {
+        if (verifyResult.isEmpty()) {
             return;
         }
-        StrBuilder fieldName = StrUtil.strBuilder();
-        for (Map.Entry<String, List<String>> entry : verifyResult.errorInfoMap.entrySet()) {
-            fieldName.append(parentFieldName).append(parentFieldNameSuffix).append(entry.getKey());
-            addErrorInfo(fieldName.toStringAndReset(), entry.getValue());
+        checkModifiable();
+        mergeChildResult(verifyResult, parentFieldName, index < 0 ? StrUtil.DOT : null, index);
+    }
+
+    private void mergeChildResult(VerifyResult verifyResult, String parentFieldName, String parentFieldNameSuffix, int index) {
+        if (Objects.isNull(childResults)) {
+            childResults = new ArrayList<>();
         }
+        childResults.add(new ChildResult(verifyResult, parentFieldName, parentFieldNameSuffix, index));
+        errorCount += verifyResult.errorCount;
+        errorInfoMap = null;
     }
 
     public boolean hasError() {
-        if (CollUtil.isEmpty(errorInfoMap)) {
-            return false;
+        return errorCount > 0;
+    }
+
+    /**
+     * 错误信息总数
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * 所有的错误信息，key 完整的字段路径、value 错误信息，不可修改，新增错误信息需使用 {@link #addErrorInfo}
+     */
+    public Map<String, List<String>> getErrorInfoMap() {
+        Map<String, List<String>> errorInfoMap = this.errorInfoMap;
+        if (Objects.isNull(errorInfoMap)) {
+            if (isEmpty()) {
+                return Collections.emptyMap();
+            }
+            errorInfoMap = new LinkedHashMap<>();
+            collectErrorInfo(errorInfoMap, new StringBuilder());
+            errorInfoMap.replaceAll((fieldName, errorMsgs) -> Collections.unmodifiableList(errorMsgs));
+            errorInfoMap = Collections.unmodifiableMap(errorInfoMap);
+            this.errorInfoMap = errorInfoMap;
+        }
+        return errorInfoMap;
+    }
+
+    /**
+     * 将错误信息以 prefix 为字段路径前缀加入 errorInfoMap
+     */
+    private void collectErrorInfo(Map<String, List<String>> errorInfoMap, StringBuilder prefix) {
+        int prefixLength = prefix.length();
+        if (Objects.nonNull(localErrorInfoMap)) {
+            for (Map.Entry<String, List<String>> entry : localErrorInfoMap.entrySet()) {
+                String fieldName = prefixLength == 0 ? entry.getKey() : prefix.append(entry.getKey()).toString();
+                prefix.setLength(prefixLength);
+                errorInfoMap.computeIfAbsent(fieldName, k -> new ArrayList<>()).addAll(entry.getValue());
+            }
+        }
+        if (Objects.nonNull(childResults)) {
+            for (ChildResult childResult : childResults) {
+                childResult.appendPath(prefix);
+                childResult.verifyResult.collectErrorInfo(errorInfoMap, prefix);
+                prefix.setLength(prefixLength);
+            }
+        }
+    }
+
+    /**
+     * 复制当前结果，已合并的子结果不会再被修改，直接共享
+     */
+    private VerifyResult copy() {
+        VerifyResult copy = new VerifyResult();
+        if (Objects.nonNull(localErrorInfoMap)) {
+            copy.localErrorInfoMap = new LinkedHashMap<>(localErrorInfoMap.size() * 4 / 3 + 1);
+            localErrorInfoMap.forEach((fieldName, errorMsgs) -> copy.localErrorInfoMap.put(fieldName, new ArrayList<>(errorMsgs)));
+        }
+        if (Objects.nonNull(childResults)) {
+            copy.childResults = new ArrayList<>(childResults);
+        }
+        copy.errorCount = errorCount;
+        return copy;
+    }
+
+    private boolean isEmpty() {
+        return Objects.isNull(localErrorInfoMap) && Objects.isNull(childResults);
+    }
+
+    private void checkModifiable() {
+        if (this == EMPTY) {
+            throw new UnsupportedOperationException("Empty VerifyResult can not be modified");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "VerifyResult(errorInfoMap=" + getErrorInfoMap() + ")";
+    }
+
+    private static class ChildResult {
+
+        private final VerifyResult verifyResult;
+
+        private final String parentFieldName;
+
+        private final String parentFieldNameSuffix;
+
+        /**
+         * 集合中元素的索引，不是集合元素时为-1
+         */
+        private final int index;
+
+        ChildResult(VerifyResult verifyResult, String parentFieldName, String parentFieldNameSuffix, int index) {
+            this.verifyResult = verifyResult;
+            this.parentFieldName = parentFieldName;
+            this.parentFieldNameSuffix = parentFieldNameSuffix;
+            this.index = index;
+        }
+
+        void appendPath(StringBuilder path) {
+            if (Objects.nonNull(parentFieldName)) {
+                path.append(parentFieldName);
+            }
+            if (index >= 0) {
+                path.append('[').append(index).append("].");
+            } else if (Objects.nonNull(parentFieldNameSuffix)) {
+                path.append(parentFieldNameSuffix);
+            }
         }
-        return errorInfoMap.values().stream().anyMatch(CollUtil::isNotEmpty);
     }
 
 }
@@ -6,6 +6,7 @@ import com.alibaba.excel.EasyExcel;
 import com.alibaba.excel.exception.ExcelGenerateException;
 import com.alibaba.excel.write.builder.ExcelWriterSheetBuilder;
 import com.jz.zeus.excel.CellErrorInfo;
+import com.jz.zeus.excel.DicSheetProtection;
 import com.jz.zeus.excel.DynamicHead;
 import com.jz.zeus.excel.ValidationInfo;
 import com.jz.zeus.excel.context.ExcelContext;
@@ -39,6 +40,10 @@ public class ZeusExcelWriterSheetBuilder {
 
     private List<ValidationInfo> validationInfos;
 
+    private DicSheetProtection dicSheetProtection = DicSheetProtection.SHARED_PASSWORD;
+
+    private boolean inlineExplicitList = true;
+
     private List<CellErrorInfo> errorInfos;
 
     private CellStyleProperty headStyle;
@@ -69,6 +74,22 @@ public class ZeusExcelWriterSheetBuilder {
         return this;
     }
 
+    /**
+     * 设置隐藏的下拉框选项 sheet 的保护方式，默认 {@link DicSheetProtection#SHARED_PASSWORD}
+     */
+    public ZeusExcelWriterSheetBuilder dicSheetProtection(DicSheetProtection dicSheetProtection) {
+        this.dicSheetProtection = dicSheetProtection;
+        return this;
+    }
+
+    /**
+     * 选项较少的普通下拉框是否直接将选项写入数据校验的公式中，默认开启
+     */
+    public ZeusExcelWriterSheetBuilder inlineExplicitList(boolean inlineExplicitList) {
+        this.inlineExplicitList = inlineExplicitList;
+        return this;
+    }
+
     public ZeusExcelWriterSheetBuilder errorInfos(List<CellErrorInfo> errorInfos) {
         this.errorInfos = errorInfos;
         return this;
@@ -102,7 +123,9 @@ public class ZeusExcelWriterSheetBuilder {
     public ZeusWriteSheet build(List<List<String>> headNames) {
         ExcelWriterSheetBuilder sheetBuilder = EasyExcel.writerSheet(sheetIndex, sheetName);
         sheetBuilder.head(headNames);
-        sheetBuilder.registerWriteHandler(new ValidationInfoHandler(excelContext, validationInfos));
+        sheetBuilder.registerWriteHandler(new ValidationInfoHandler(excelContext, validationInfos)
+                .dicSheetProtection(dicSheetProtection)
+                .inlineExplicitList(inlineExplicitList));
         sheetBuilder.registerWriteHandler(new ErrorInfoHandler(excelContext, removeOldErrorInfo, errorInfos));
         if (CollUtil.isNotEmpty(headStyles)) {
             sheetBuilder.registerWriteHandler(new HeadStyleHandler(excelContext, headStyles));
@@ -130,7 +153,9 @@ public class ZeusExcelWriterSheetBuilder {
         } else {
             sheetBuilder.registerWriteHandler(new HeadStyleHandler(excelContext, headStyle));
         }
-        sheetBuilder.registerWriteHandler(new ValidationInfoHandler(excelContext, validationInfos));
+        sheetBuilder.registerWriteHandler(new ValidationInfoHandler(excelContext, validationInfos)
+                .dicSheetProtection(dicSheetProtection)
+                .inlineExplicitList(inlineExplicitList));
         sheetBuilder.registerWriteHandler(new ErrorInfoHandler(excelContext, removeOldErrorInfo, errorInfos));
         sheetBuilder.needHead(needHead);
         ZeusWriteSheet zeusWriteSheet = new ZeusWriteSheet(excelContext);
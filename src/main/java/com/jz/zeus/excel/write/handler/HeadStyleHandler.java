@@ -1,6 +1,5 @@
 package com.jz.zeus.excel.write.handler;
 
-import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.lang.Assert;
 import cn.hutool.core.text.CharSequenceUtil;
@@ -15,6 +14,7 @@ import com.jz.zeus.excel.annotation.HeadColor;
 import com.jz.zeus.excel.context.ExcelContext;
 import com.jz.zeus.excel.util.ClassUtils;
 import com.jz.zeus.excel.util.ExcelUtils;
+import com.jz.zeus.excel.write.helper.CellStyleRegistry;
 import com.jz.zeus.excel.write.helper.WriteSheetHelper;
 import com.jz.zeus.excel.write.property.CellStyleProperty;
 import org.apache.poi.ss.usermodel.*;
@@ -126,7 +126,7 @@ public class HeadStyleHandler extends AbstractRowWriteHandler {
                                 styleProperty.setFontProperty(fieldInfo.getHeadFontProperty());
                             }
                             if (fieldInfo.getHeadStyleProperty() != null) {
-                                BeanUtil.copyProperties(fieldInfo.getHeadStyleProperty(), styleProperty);
+                                styleProperty.setStyleProperty(fieldInfo.getHeadStyleProperty());
                             }
                             if (fieldInfo.getColumnWidthProperty() != null) {
                                 styleProperty.setWidth(fieldInfo.getColumnWidthProperty().getWidth());
@@ -151,7 +151,7 @@ public class HeadStyleHandler extends AbstractRowWriteHandler {
     private void setCellStyle(Sheet sheet, Cell cell, Head head, Class headClass) {
         CellStyleProperty cellStyleProperty = CellStyleProperty.getDefaultHeadProperty();
         if (head.getHeadStyleProperty() != null) {
-            BeanUtil.copyProperties(head.getHeadStyleProperty(), cellStyleProperty);
+            cellStyleProperty.setStyleProperty(head.getHeadStyleProperty());
             if (enabledNoBorder) {
                 cellStyleProperty.setBorderBottom(BorderStyle.NONE);
                 cellStyleProperty.setBorderTop(BorderStyle.NONE);
@@ -174,10 +174,8 @@ public class HeadStyleHandler extends AbstractRowWriteHandler {
 
     private void setCellStyle(Sheet sheet, Cell cell, CellStyleProperty cellStyleProperty) {
         Workbook workbook = sheet.getWorkbook();
-        CellStyle cellStyle = workbook.createCellStyle();
-        cellStyle.cloneStyleFrom(cell.getCellStyle());
-        Font font = workbook.createFont();
-        cellStyleProperty.setCellStyle(font, cellStyle);
+        CellStyle cellStyle = CellStyleRegistry.of(workbook).getCellStyle(workbook, cell.getCellStyle(), cellStyleProperty);
+        Font font = workbook.getFontAt(cellStyle.getFontIndexAsInt());
         cell.setCellStyle(cellStyle);
 
         if (isAutoColumnWidth) {
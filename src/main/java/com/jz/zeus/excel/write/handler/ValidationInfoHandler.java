@@ -3,25 +3,29 @@ package com.jz.zeus.excel.write.handler;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.collection.ListUtil;
+import cn.hutool.core.lang.Assert;
 import cn.hutool.core.text.CharSequenceUtil;
 import cn.hutool.core.text.StrBuilder;
-import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.RandomUtil;
 import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
 import com.alibaba.excel.enums.HeadKindEnum;
 import com.alibaba.excel.write.handler.AbstractSheetWriteHandler;
 import com.alibaba.excel.write.metadata.holder.WriteSheetHolder;
 import com.alibaba.excel.write.metadata.holder.WriteWorkbookHolder;
+import com.jz.zeus.excel.DicSheetProtection;
 import com.jz.zeus.excel.ValidationInfo;
 import com.jz.zeus.excel.ValidationInfoType;
 import com.jz.zeus.excel.context.ExcelContext;
 import com.jz.zeus.excel.util.ClassUtils;
 import com.jz.zeus.excel.util.ExcelUtils;
+import com.jz.zeus.excel.write.helper.SharedSheetProtection;
 import com.jz.zeus.excel.write.helper.WriteSheetHelper;
 import org.apache.poi.hssf.usermodel.HSSFCell;
 import org.apache.poi.hssf.usermodel.HSSFRichTextString;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddressList;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFDataValidation;
 
 import java.util.*;
@@ -32,6 +36,18 @@ import java.util.*;
  */
 public class ValidationInfoHandler extends AbstractSheetWriteHandler {
 
+    /**
+     * 保存普通下拉框选项的共享字典 sheet
+     */
+    private static final String OPTION_SHEET_NAME = "zeus_options";
+
+    private static final String OPTION_NAME_PREFIX = "_opt_";
+
+    /**
+     * 直接写入公式的下拉框选项以逗号分隔后的最大长度
+     */
+    private static final int MAX_EXPLICIT_LIST_LENGTH = 255;
+
     private ExcelContext excelContext;
 
     private Integer headRowNum;
@@ -43,6 +59,16 @@ public class ValidationInfoHandler extends AbstractSheetWriteHandler {
      */
     private List<ValidationInfo> validationInfoList;
 
+    /**
+     * 隐藏的选项 sheet 的保护方式
+     */
+    private DicSheetProtection dicSheetProtection = DicSheetProtection.SHARED_PASSWORD;
+
+    /**
+     * 选项较少的普通下拉框是否直接将选项写入数据校验的公式中，不生成选项 sheet，默认开启
+     */
+    private boolean inlineExplicitList = true;
+
     public ValidationInfoHandler(ExcelContext excelContext, List<ValidationInfo> validationInfoList) {
         this(excelContext, null, validationInfoList);
     }
@@ -63,9 +89,12 @@ public class ValidationInfoHandler extends AbstractSheetWriteHandler {
             if (CollUtil.isEmpty(validationInfoList)) {
                 validationInfoList.addAll(ClassUtils.getValidationInfos(writeSheetHolder.getClazz()));
             } else {
+                // 注解中的下拉框与已配置的下拉框位置相同时使用已配置的下拉框
+                Set<String> locationKeys = new HashSet<>();
+                validationInfoList.forEach(info -> addLocationKeys(info, locationKeys));
                 ClassUtils.getValidationInfos(writeSheetHolder.getClazz())
                         .forEach(boxInfo -> {
-                            if (validationInfoList.stream().noneMatch(info -> Objects.equals(boxInfo, info))) {
+                            if (!containsLocation(boxInfo, locationKeys)) {
                                 validationInfoList.add(boxInfo);
                             }
                         });
@@ -113,10 +142,16 @@ public class ValidationInfoHandler extends AbstractSheetWriteHandler {
         DataValidationHelper helper = sheet.getDataValidationHelper();
         DataValidationConstraint constraint;
         if (boxInfo.getType() == ValidationInfoType.CASCADE) {
-            addCascadeValidationData(workbook, sheet, helper, boxInfo, firstCol, lastCol);
+            addCascadeValidationData(workbook, sheet, helper, boxInfo, firstRow, lastRow, firstCol, lastCol);
         } else {
             // 默认认为是非及联下拉框
-            constraint = helper.createFormulaListConstraint(createValidationDataSheet(workbook, boxInfo).get(0).getNameName());
+            if (boxInfo.isAsDicSheet()) {
+                constraint = helper.createFormulaListConstraint(createValidationDataSheet(workbook, boxInfo).get(0).getNameName());
+            } else if (isExplicitList(boxInfo.getOptions())) {
+                constraint = helper.createExplicitListConstraint(boxInfo.getOptions().toArray(new String[0]));
+            } else {
+                constraint = helper.createFormulaListConstraint(createOptionName(workbook, boxInfo.getOptions()).getNameName());
+            }
             DataValidation dataValidation = createDataValidation(helper, constraint,
                     new CellRangeAddressList(firstRow, lastRow, firstCol, lastCol), boxInfo);
             sheet.addValidationData(dataValidation);
@@ -124,33 +159,84 @@ public class ValidationInfoHandler extends AbstractSheetWriteHandler {
     }
 
     /**
-     * 添加级联下拉框
+     * 添加级联下拉框，整个区域只添加一个数据校验。
+     * 公式中父级单元格的引用为列绝对、行相对，以区域的第一行为基准，Excel 会按行偏移到每一行对应的父级单元格
      */
-    private void addCascadeValidationData(Workbook workbook, Sheet sheet, DataValidationHelper helper, ValidationInfo boxInfo, int firstCol, int lastCol) {
+    private void addCascadeValidationData(Workbook workbook, Sheet sheet, DataValidationHelper helper, ValidationInfo boxInfo,
+                                          int firstRow, int lastRow, int firstCol, int lastCol) {
         ValidationInfo parentBoxInfo = boxInfo.getParent();
+        // 父级 sheet 名只作为 Name 名称的一部分，普通下拉框的选项不再写入父级 sheet，无需创建
         String parentSheetName = parentBoxInfo.getSheetName();
-        if (workbook.getSheet(parentSheetName) == null) {
-            workbook.createSheet(parentSheetName);
-        }
         // 创建当前被及联的下拉框的sheet
         createValidationDataSheet(workbook, boxInfo);
 
-        StrBuilder strBuilder = StrUtil.strBuilder();
         String childSheetName = boxInfo.getSheetName();
         String columnStr = ExcelUtils.columnIndexToStr(getColumnIndex(parentBoxInfo));
-        for (int i = writeSheetHelper.getHeadRowNum(); i < boxInfo.getRowNum(); i++) {
-            strBuilder.append(StrUtil.C_DOT).append(parentSheetName)
-                  .append(StrUtil.C_DOT).append(childSheetName);
-            String concatenate = String.format("ENCODEURL(CONCATENATE($%s$%d,\"%s\"))", columnStr, i+1, strBuilder.toStringAndReset());
-            String substitute = "SUBSTITUTE(" + concatenate + ",\"%\",\"_\")";
-            substitute = String.format("SUBSTITUTE(%s,\"-\",\"_2D\")", substitute);   // excel 中的 url encode 不对 '-' 进行处理，但 name 的名称不能包含 '-'，这里进行转换
-            String formula = String.format("INDIRECT(%s)", substitute);
-            DataValidationConstraint constraint = helper.createFormulaListConstraint(formula);
-            CellRangeAddressList rangeAddressList = new CellRangeAddressList(i, i, firstCol, lastCol);
-            DataValidation validation = createDataValidation(helper, constraint, rangeAddressList, boxInfo);
-            sheet.addValidationData(validation);
+        String nameSuffix = StrUtil.strBuilder().append(StrUtil.C_DOT).append(parentSheetName)
+                .append(StrUtil.C_DOT).append(childSheetName).toString();
+        String concatenate = String.format("ENCODEURL(CONCATENATE($%s%d,\"%s\"))", columnStr, firstRow+1, nameSuffix);
+        String substitute = "SUBSTITUTE(" + concatenate + ",\"%\",\"_\")";
+        substitute = String.format("SUBSTITUTE(%s,\"-\",\"_2D\")", substitute);   // excel 中的 url encode 不对 '-' 进行处理，但 name 的名称不能包含 '-'，这里进行转换
+        String formula = String.format("INDIRECT(%s)", substitute);
+        DataValidationConstraint constraint = helper.createFormulaListConstraint(formula);
+        CellRangeAddressList rangeAddressList = new CellRangeAddressList(firstRow, lastRow, firstCol, lastCol);
+        DataValidation validation = createDataValidation(helper, constraint, rangeAddressList, boxInfo);
+        sheet.addValidationData(validation);
+    }
+
+    /**
+     * 选项能否直接写入数据校验的公式中，选项以逗号分隔后的长度不能超过 Excel 的限制，且选项中不能包含分隔符及引号
+     */
+    private boolean isExplicitList(List<String> options) {
+        if (!inlineExplicitList) {
+            return false;
         }
+        int length = options.size() - 1;
+        for (String option : options) {
+            if (CharSequenceUtil.isEmpty(option) || CharSequenceUtil.containsAny(option, StrUtil.C_COMMA, '"')) {
+                return false;
+            }
+            length += option.length();
+            if (length > MAX_EXPLICIT_LIST_LENGTH) {
+                return false;
+            }
+        }
+        return true;
+    }
 
+    /**
+     * 将下拉框选项保存到共享的隐藏字典 sheet 中，每组不同的选项占一列，按第一次出现的顺序从第一列开始依次排列。
+     * 选项内容相同的下拉框共用一列及一个 Name，Name 的名称由选项内容的摘要生成
+     * @return  选项所在区域的 Name
+     */
+    private Name createOptionName(Workbook workbook, List<String> options) {
+        StrBuilder content = StrUtil.strBuilder();
+        for (String option : options) {
+            content.append(option == null ? -1 : option.length()).append(StrUtil.C_COLON)
+                    .append(option).append(StrUtil.C_LF);
+        }
+        String nameName = OPTION_NAME_PREFIX + DigestUtil.sha256Hex(content.toString()).substring(0, 32);
+        Name name = workbook.getName(nameName);
+        if (name != null) {
+            return name;
+        }
+        // SXSSF 的 sheet 不能回写已写出的行，字典 sheet 直接使用底层的 XSSFWorkbook 创建
+        Workbook dicWorkbook = workbook instanceof SXSSFWorkbook ? ((SXSSFWorkbook) workbook).getXSSFWorkbook() : workbook;
+        Sheet dicSheet = dicWorkbook.getSheet(OPTION_SHEET_NAME);
+        if (dicSheet == null) {
+            dicSheet = dicWorkbook.createSheet(OPTION_SHEET_NAME);
+            hideDicSheet(dicWorkbook, dicSheet);
+        }
+        Row firstRow = dicSheet.getRow(0);
+        int columnIndex = firstRow == null ? 0 : firstRow.getLastCellNum();
+        for (int i = 0; i < options.size(); i++) {
+            Row row = dicSheet.getRow(i);
+            if (row == null) {
+                row = dicSheet.createRow(i);
+            }
+            row.createCell(columnIndex).setCellValue(options.get(i));
+        }
+        return ExcelUtils.createName(workbook, OPTION_SHEET_NAME, nameName, 1, options.size(), columnIndex, columnIndex);
     }
 
     /**
@@ -170,8 +256,7 @@ public class ValidationInfoHandler extends AbstractSheetWriteHandler {
             columnIndex = RandomUtil.randomInt(200);
             beginRowIndex = RandomUtil.randomInt(1000);
             sheet.setColumnHidden(columnIndex, true);    // 将列进行隐藏
-            sheet.protectSheet(IdUtil.fastSimpleUUID());   // 设置随机密码进行保护
-            workbook.setSheetHidden(workbook.getSheetIndex(sheet), true);
+            hideDicSheet(workbook, sheet);
         } else if (CharSequenceUtil.isNotBlank(boxInfo.getDicTitle())) {
             // 只有在作为字典表时，才能设置表头
             beginRowIndex = 1;
@@ -226,6 +311,32 @@ public class ValidationInfoHandler extends AbstractSheetWriteHandler {
               beginRowIndex + 1, endRowIndex + 1, columnIndex, columnIndex));
     }
 
+    /**
+     * 按 {@link #dicSheetProtection} 隐藏并保护选项 sheet
+     */
+    private void hideDicSheet(Workbook workbook, Sheet sheet) {
+        int sheetIndex = workbook.getSheetIndex(sheet);
+        if (dicSheetProtection == DicSheetProtection.VERY_HIDDEN) {
+            workbook.setSheetVisibility(sheetIndex, SheetVisibility.VERY_HIDDEN);
+            return;
+        }
+        workbook.setSheetHidden(sheetIndex, true);
+        if (dicSheetProtection == DicSheetProtection.SHARED_PASSWORD) {
+            SharedSheetProtection.protect(workbook, sheet);
+        }
+    }
+
+    public ValidationInfoHandler dicSheetProtection(DicSheetProtection dicSheetProtection) {
+        Assert.notNull(dicSheetProtection, "DicSheetProtection can not be null");
+        this.dicSheetProtection = dicSheetProtection;
+        return this;
+    }
+
+    public ValidationInfoHandler inlineExplicitList(boolean inlineExplicitList) {
+        this.inlineExplicitList = inlineExplicitList;
+        return this;
+    }
+
     private DataValidation createDataValidation(DataValidationHelper helper, DataValidationConstraint constraint, CellRangeAddressList cellRangeAddressList, ValidationInfo boxInfo) {
         DataValidation dataValidation = helper.createValidation(constraint, cellRangeAddressList);
         if (dataValidation instanceof XSSFDataValidation) {
@@ -240,6 +351,28 @@ public class ValidationInfoHandler extends AbstractSheetWriteHandler {
         return dataValidation;
     }
 
+    /**
+     * 按 {@link ValidationInfo#equals(Object)} 的规则生成下拉框位置的标识，任一标识相同即为相同位置
+     */
+    private static void addLocationKeys(ValidationInfo boxInfo, Set<String> locationKeys) {
+        Integer rowIndex = boxInfo.getRowIndex();
+        if (rowIndex != null) {
+            locationKeys.add("column:" + rowIndex + StrUtil.C_COLON + boxInfo.getColumnIndex());
+        }
+        if (CharSequenceUtil.isNotBlank(boxInfo.getFieldName())) {
+            locationKeys.add("field:" + rowIndex + StrUtil.C_COLON + boxInfo.getFieldName());
+        }
+        if (CharSequenceUtil.isNotBlank(boxInfo.getHeadName())) {
+            locationKeys.add("head:" + rowIndex + StrUtil.C_COLON + boxInfo.getHeadName());
+        }
+    }
+
+    private static boolean containsLocation(ValidationInfo boxInfo, Set<String> locationKeys) {
+        Set<String> keys = new HashSet<>(4);
+        addLocationKeys(boxInfo, keys);
+        return keys.stream().anyMatch(locationKeys::contains);
+    }
+
     /**
      * 根据 ValidationInfo 获取列索引
      */
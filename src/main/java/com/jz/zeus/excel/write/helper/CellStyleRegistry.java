@@ -0,0 +1,156 @@
+package com.jz.zeus.excel.write.helper;
+
+import cn.hutool.core.lang.Assert;
+import com.alibaba.excel.metadata.property.FontProperty;
+import com.jz.zeus.excel.write.property.CellStyleProperty;
+import lombok.Getter;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.hibernate.validator.internal.util.ConcurrentReferenceHashMap;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * workbook 级别的单元格样式及字体注册表，相同的基础样式与样式配置只创建一次 {@link CellStyle}，相同的字体配置只创建一次 {@link Font}，
+ * 避免每个单元格都创建样式导致超出 workbook 的样式数量上限。
+ * 注册表只保存样式与字体在 workbook 中的索引，随 workbook 回收；与 workbook 一样不能在多个线程中同时使用
+ * @Author JZ
+ * @Date 2021/7/22 10:08
+ */
+public class CellStyleRegistry {
+
+    private static final Map<Workbook, CellStyleRegistry> REGISTRY_CACHE = new ConcurrentReferenceHashMap<>();
+
+    private final Map<String, Integer> cellStyleIndexMap = new HashMap<>();
+
+    private final Map<String, Integer> fontIndexMap = new HashMap<>();
+
+    /**
+     * 复用已有样式或字体的次数
+     */
+    @Getter
+    private long hitCount;
+
+    /**
+     * 新建样式或字体的次数
+     */
+    @Getter
+    private long missCount;
+
+    private CellStyleRegistry() {}
+
+    /**
+     * 获取 workbook 对应的注册表
+     */
+    public static CellStyleRegistry of(Workbook workbook) {
+        Assert.notNull(workbook, "Workbook can not be null");
+        return REGISTRY_CACHE.computeIfAbsent(workbook, k -> new CellStyleRegistry());
+    }
+
+    /**
+     * 获取以 baseStyle 为基础、应用 cellStyleProperty 及其字体配置后的样式
+     */
+    public CellStyle getCellStyle(Workbook workbook, CellStyle baseStyle, CellStyleProperty cellStyleProperty) {
+        Font font = getFont(workbook, cellStyleProperty.getFontProperty());
+        String key = new StringBuilder("property:").append(baseStyle.getIndex())
+                .append(':').append(font.getIndexAsInt())
+                .append(':').append(styleKey(cellStyleProperty)).toString();
+        Integer styleIndex = cellStyleIndexMap.get(key);
+        if (styleIndex != null) {
+            hitCount++;
+            return workbook.getCellStyleAt(styleIndex);
+        }
+        missCount++;
+        CellStyle cellStyle = workbook.createCellStyle();
+        cellStyle.cloneStyleFrom(baseStyle);
+        cellStyleProperty.setCellStyle(cellStyle);
+        cellStyle.setFont(font);
+        cellStyleIndexMap.put(key, (int) cellStyle.getIndex());
+        return cellStyle;
+    }
+
+    /**
+     * 获取以 baseStyle 为基础、使用纯色填充前景色的样式
+     */
+    public CellStyle getFillStyle(Workbook workbook, CellStyle baseStyle, short fillForegroundColor) {
+        String key = "fill:" + baseStyle.getIndex() + ':' + fillForegroundColor;
+        Integer styleIndex = cellStyleIndexMap.get(key);
+        if (styleIndex != null) {
+            hitCount++;
+            return workbook.getCellStyleAt(styleIndex);
+        }
+        missCount++;
+        CellStyle cellStyle = workbook.createCellStyle();
+        cellStyle.cloneStyleFrom(baseStyle);
+        cellStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        cellStyle.setFillForegroundColor(fillForegroundColor);
+        cellStyleIndexMap.put(key, (int) cellStyle.getIndex());
+        return cellStyle;
+    }
+
+    /**
+     * 获取应用 fontProperty 后的字体，fontProperty 为null时为新建字体的默认样式
+     */
+    public Font getFont(Workbook workbook, FontProperty fontProperty) {
+        String key = fontKey(fontProperty);
+        Integer fontIndex = fontIndexMap.get(key);
+        if (fontIndex != null) {
+            hitCount++;
+            return workbook.getFontAt(fontIndex);
+        }
+        missCount++;
+        Font font = workbook.createFont();
+        CellStyleProperty.setFontStyle(font, fontProperty);
+        fontIndexMap.put(key, font.getIndexAsInt());
+        return font;
+    }
+
+    private static String styleKey(CellStyleProperty property) {
+        return new StringBuilder()
+                .append(property.getDataFormat()).append(',')
+                .append(property.getHidden()).append(',')
+                .append(property.getLocked()).append(',')
+                .append(property.getQuotePrefix()).append(',')
+                .append(property.getHorizontalAlignment()).append(',')
+                .append(property.getWrapped()).append(',')
+                .append(property.getVerticalAlignment()).append(',')
+                .append(property.getRotation()).append(',')
+                .append(property.getIndent()).append(',')
+                .append(property.getBorderLeft()).append(',')
+                .append(property.getBorderRight()).append(',')
+                .append(property.getBorderTop()).append(',')
+                .append(property.getBorderBottom()).append(',')
+                .append(property.getLeftBorderColor()).append(',')
+                .append(property.getRightBorderColor()).append(',')
+                .append(property.getTopBorderColor()).append(',')
+                .append(property.getBottomBorderColor()).append(',')
+                .append(property.getFillPatternType()).append(',')
+                .append(property.getFillBackgroundColor()).append(',')
+                .append(property.getFillForegroundColor()).append(',')
+                .append(property.getCellFillBackgroundColor() == null ? null : property.getCellFillBackgroundColor().getRGB()).append(',')
+                .append(property.getCellFillForegroundColor() == null ? null : property.getCellFillForegroundColor().getRGB()).append(',')
+                .append(property.getShrinkToFit())
+                .toString();
+    }
+
+    private static String fontKey(FontProperty fontProperty) {
+        if (fontProperty == null) {
+            return "";
+        }
+        return new StringBuilder()
+                .append(fontProperty.getFontName()).append(',')
+                .append(fontProperty.getFontHeightInPoints()).append(',')
+                .append(fontProperty.getItalic()).append(',')
+                .append(fontProperty.getStrikeout()).append(',')
+                .append(fontProperty.getColor()).append(',')
+                .append(fontProperty.getTypeOffset()).append(',')
+                .append(fontProperty.getUnderline()).append(',')
+                .append(fontProperty.getCharset()).append(',')
+                .append(fontProperty.getBold())
+                .toString();
+    }
+
+}
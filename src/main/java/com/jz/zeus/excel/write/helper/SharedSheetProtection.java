@@ -0,0 +1,65 @@
+package com.jz.zeus.excel.write.helper;
+
+import cn.hutool.core.util.IdUtil;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.hibernate.validator.internal.util.ConcurrentReferenceHashMap;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTSheetProtection;
+
+import java.util.Map;
+
+/**
+ * 同一 workbook 中的多个 sheet 使用同一个随机密码保护，密码的哈希只计算一次，之后的 sheet 直接复制保护配置
+ * @Author JZ
+ * @Date 2021/7/23 15:32
+ */
+public class SharedSheetProtection {
+
+    private static final Map<Workbook, SharedSheetProtection> PROTECTION_CACHE = new ConcurrentReferenceHashMap<>();
+
+    private final String password = IdUtil.fastSimpleUUID();
+
+    /**
+     * 已计算哈希的保护配置，与 workbook 的文档无关联
+     */
+    private CTSheetProtection sheetProtection;
+
+    private SharedSheetProtection() {}
+
+    /**
+     * 使用 workbook 共享的随机密码保护 sheet
+     */
+    public static void protect(Workbook workbook, Sheet sheet) {
+        // SXSSFWorkbook 与其底层的 XSSFWorkbook 共用同一个密码
+        Workbook key = workbook instanceof SXSSFWorkbook ? ((SXSSFWorkbook) workbook).getXSSFWorkbook() : workbook;
+        PROTECTION_CACHE.computeIfAbsent(key, k -> new SharedSheetProtection())
+                .protectSheet(workbook, sheet);
+    }
+
+    private synchronized void protectSheet(Workbook workbook, Sheet sheet) {
+        XSSFSheet xssfSheet = getXSSFSheet(workbook, sheet);
+        if (xssfSheet == null) {
+            sheet.protectSheet(password);
+            return;
+        }
+        if (sheetProtection == null) {
+            xssfSheet.protectSheet(password);
+            sheetProtection = (CTSheetProtection) xssfSheet.getCTWorksheet().getSheetProtection().copy();
+        } else {
+            xssfSheet.getCTWorksheet().setSheetProtection(sheetProtection);
+        }
+    }
+
+    private static XSSFSheet getXSSFSheet(Workbook workbook, Sheet sheet) {
+        if (sheet instanceof XSSFSheet) {
+            return (XSSFSheet) sheet;
+        }
+        if (workbook instanceof SXSSFWorkbook) {
+            return ((SXSSFWorkbook) workbook).getXSSFWorkbook().getSheetAt(workbook.getSheetIndex(sheet));
+        }
+        return null;
+    }
+
+}
@@ -129,6 +129,35 @@ public class CellStyleProperty extends StyleProperty {
         return this;
     }
 
+    /**
+     * 复制 styleProperty 的所有样式配置，包括值为null的配置
+     */
+    public CellStyleProperty setStyleProperty(StyleProperty styleProperty) {
+        setDataFormat(styleProperty.getDataFormat());
+        setWriteFont(styleProperty.getWriteFont());
+        setHidden(styleProperty.getHidden());
+        setLocked(styleProperty.getLocked());
+        setQuotePrefix(styleProperty.getQuotePrefix());
+        setHorizontalAlignment(styleProperty.getHorizontalAlignment());
+        setWrapped(styleProperty.getWrapped());
+        setVerticalAlignment(styleProperty.getVerticalAlignment());
+        setRotation(styleProperty.getRotation());
+        setIndent(styleProperty.getIndent());
+        setBorderLeft(styleProperty.getBorderLeft());
+        setBorderRight(styleProperty.getBorderRight());
+        setBorderTop(styleProperty.getBorderTop());
+        setBorderBottom(styleProperty.getBorderBottom());
+        setLeftBorderColor(styleProperty.getLeftBorderColor());
+        setRightBorderColor(styleProperty.getRightBorderColor());
+        setTopBorderColor(styleProperty.getTopBorderColor());
+        setBottomBorderColor(styleProperty.getBottomBorderColor());
+        setFillPatternType(styleProperty.getFillPatternType());
+        setFillBackgroundColor(styleProperty.getFillBackgroundColor());
+        setFillForegroundColor(styleProperty.getFillForegroundColor());
+        setShrinkToFit(styleProperty.getShrinkToFit());
+        return this;
+    }
+
     public static CellStyleProperty getDefaultHeadProperty(int rowIndex, int columnIndex) {
         return getDefaultHeadProperty().setLocation(rowIndex, columnIndex);
     }
@@ -167,7 +196,11 @@ public class CellStyleProperty extends StyleProperty {
     }
 
     public Font setFontStyle(Font font) {
-        if (this.fontProperty == null) {
+        return setFontStyle(font, fontProperty);
+    }
+
+    public static Font setFontStyle(Font font, FontProperty fontProperty) {
+        if (fontProperty == null) {
             return font;
         }
         if (fontProperty.getFontHeightInPoints() != null) {
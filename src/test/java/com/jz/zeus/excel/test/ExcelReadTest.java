@@ -46,6 +46,7 @@ public class ExcelReadTest {
 
         List<CellErrorInfo> errorInfos = readListener.getErrorInfoMap().values()
                 .stream().flatMap(e -> e.stream()).collect(Collectors.toList());
+        readListener.clearErrorInfo();
 //        byte[] bytes = IoUtils.toByteArray(new FileInputStream(path));
 //        ZeusExcel.write(path)
 //                .withTemplate(new ByteArrayInputStream(bytes))
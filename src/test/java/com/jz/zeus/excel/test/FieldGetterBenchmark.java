@@ -0,0 +1,96 @@
+package com.jz.zeus.excel.test;
+
+import cn.hutool.core.collection.ListUtil;
+import cn.hutool.core.lang.Console;
+import cn.hutool.core.text.CharSequenceUtil;
+import cn.hutool.core.util.ReflectUtil;
+import com.jz.zeus.excel.CellErrorInfo;
+import com.jz.zeus.excel.interfaces.FieldGetter;
+import com.jz.zeus.excel.test.data.B;
+import com.jz.zeus.excel.test.data.C;
+import com.jz.zeus.excel.validator.VerifyResult;
+import lombok.SneakyThrows;
+
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 对比 {@link FieldGetter#getFieldName()} 缓存前后在大量校验错误时的耗时
+ * @Author JZ
+ * @Date 2021/7/21 10:15
+ */
+public class FieldGetterBenchmark {
+
+    private static final int ROW_NUM = 200000;
+
+    public static void main(String[] args) {
+        List<B> rows = new ArrayList<>(ROW_NUM);
+        for (int i = 0; i < ROW_NUM; i++) {
+            B b = new B();
+            b.setCity("城市" + i);
+            b.setCList(ListUtil.toList(new C(null, "城镇")));
+            rows.add(b);
+        }
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            int errorNum = validate(rows, false);
+            Console.log("反射解析字段名: {}ms, 错误数: {}", (System.nanoTime() - start) / 1000000, errorNum);
+
+            start = System.nanoTime();
+            errorNum = validate(rows, true);
+            Console.log("缓存字段名: {}ms, 错误数: {}", (System.nanoTime() - start) / 1000000, errorNum);
+        }
+    }
+
+    /**
+     * 每行的每个字段都校验失败，按字段名记录错误信息
+     */
+    private static int validate(List<B> rows, boolean cached) {
+        int errorNum = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            B b = rows.get(i);
+            int rowIndex = i;
+            VerifyResult verifyResult = new VerifyResult();
+            if (b.getId() == null) {
+                verifyResult.addErrorInfo(fieldName(B::getId, cached), "B 的id不能为空");
+            }
+            if (!"城市".equals(b.getCity())) {
+                verifyResult.addErrorInfo(fieldName(B::getCity, cached), "B 的 city 只能为 城市");
+            }
+            for (C c : b.getCList()) {
+                if (c.getId() == null) {
+                    verifyResult.addErrorInfo(fieldName(C::getId, cached), "C 的id不能为空");
+                }
+            }
+            List<CellErrorInfo> errorInfos = new ArrayList<>();
+            verifyResult.getErrorInfoMap().forEach((fieldName, errorMsgs) ->
+                    errorInfos.add(CellErrorInfo.buildByField(rowIndex, fieldName, errorMsgs)));
+            errorNum += errorInfos.size();
+        }
+        return errorNum;
+    }
+
+    private static <T, R> String fieldName(FieldGetter<T, R> fieldGetter, boolean cached) {
+        return cached ? fieldGetter.getFieldName() : resolveFieldName(fieldGetter);
+    }
+
+    /**
+     * 缓存前 {@link FieldGetter#getFieldName()} 的实现，每次调用都通过反射解析
+     */
+    @SneakyThrows
+    private static String resolveFieldName(FieldGetter<?, ?> fieldGetter) {
+        Method method = ReflectUtil.getMethodByName(fieldGetter.getClass(), "writeReplace");
+        method.setAccessible(true);
+        SerializedLambda serializedLambda = (SerializedLambda) method.invoke(fieldGetter);
+        String methodName = serializedLambda.getImplMethodName();
+        if (methodName.startsWith("get")) {
+            methodName = methodName.substring(3);
+        } else if (methodName.startsWith("is")) {
+            methodName = methodName.substring(2);
+        }
+        return CharSequenceUtil.lowerFirst(methodName);
+    }
+
+}
@@ -6,6 +6,7 @@ import com.jz.zeus.excel.test.data.A;
 import com.jz.zeus.excel.test.data.B;
 import com.jz.zeus.excel.test.data.C;
 import com.jz.zeus.excel.test.data.DemoData;
+import com.jz.zeus.excel.test.data.TreeNode;
 import com.jz.zeus.excel.util.ValidatorUtils;
 import com.jz.zeus.excel.validator.BeanValidator;
 import com.jz.zeus.excel.validator.VerifyResult;
@@ -20,6 +21,29 @@ public class ValidatorTest {
     public static void main(String[] args) {
 //        test1();
         test2();
+        test3();
+    }
+
+    /**
+     * 校验器引用自身校验树形结构的子节点，编译后再对校验器新增的规则同样会校验所有子节点
+     */
+    public static void test3() {
+        TreeNode root = new TreeNode("根节点");
+        TreeNode child = new TreeNode(null);
+        child.getChildren().add(new TreeNode(""));
+        child.getChildren().add(new TreeNode("叶子节点"));
+        root.getChildren().add(child);
+
+        BeanValidator<TreeNode> nodeValidator = BeanValidator.build();
+        nodeValidator.isNotBlank(TreeNode::getName, "名称不能为空")
+                .verifyCollection(TreeNode::getChildren, nodeValidator);
+        Console.log(nodeValidator.doVerify(root, false));
+
+        BeanValidator<TreeNode> rootValidator = BeanValidator.<TreeNode>build()
+                .verifyCollection(TreeNode::getChildren, nodeValidator);
+        Console.log(rootValidator.doVerify(root, false));
+        nodeValidator.isNotBlank(TreeNode::getCode, "编码不能为空");
+        Console.log(rootValidator.doVerify(root, false));
     }
 
     @SneakyThrows
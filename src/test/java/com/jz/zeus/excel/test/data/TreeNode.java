@@ -0,0 +1,25 @@
+package com.jz.zeus.excel.test.data;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @Author JZ
+ * @Date 2021/7/22 10:15
+ */
+@Data
+public class TreeNode {
+
+    private String name;
+
+    private String code;
+
+    private List<TreeNode> children = new ArrayList<>();
+
+    public TreeNode(String name) {
+        this.name = name;
+    }
+
+}